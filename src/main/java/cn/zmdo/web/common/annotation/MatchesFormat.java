@@ -0,0 +1,72 @@
+package cn.zmdo.web.common.annotation;
+
+import cn.zmdo.web.common.util.FormatMatchEngine;
+import cn.zmdo.web.common.validation.MatchesFormatValidator;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 校验字符串是否符合格式字符串的注解
+ * <p>
+ *     格式字符串只会在校验器初始化时编译一次，之后的每次校验都复用同一个线程安全的匹配器，
+ *     不需要像 {@code @Pattern(regexp = ...)} 一样为每个格式手写并维护正则表达式。
+ *     {@code null} 被认为是合法的，如果不允许为空请配合 {@code @NotNull} 使用。
+ * </p>
+ * <pre>{@code
+ * public class OrderRequest {
+ *
+ *     @MatchesFormat("ORD-%08d")
+ *     private String orderId;
+ *
+ * }
+ * }</pre>
+ * @see MatchesFormatValidator
+ * @see cn.zmdo.web.common.util.StringFormatUtils#compile(String, FormatMatchEngine)
+ */
+@Documented
+@Constraint(validatedBy = MatchesFormatValidator.class)
+@Target({ElementType.METHOD, ElementType.FIELD, ElementType.ANNOTATION_TYPE, ElementType.CONSTRUCTOR,
+        ElementType.PARAMETER, ElementType.TYPE_USE})
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(MatchesFormat.List.class)
+public @interface MatchesFormat {
+
+    /**
+     * 设置需要符合的格式字符串
+     * @return 格式字符串，例如 {@code "%05d-%s"}
+     */
+    String value();
+
+    /**
+     * 设置使用的匹配引擎，默认使用正则表达式引擎
+     * @return 匹配引擎
+     */
+    FormatMatchEngine engine() default FormatMatchEngine.REGEX;
+
+    String message() default "不符合格式 {value}";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    /**
+     * 在同一个元素上定义多个 {@link MatchesFormat}
+     */
+    @Documented
+    @Target({ElementType.METHOD, ElementType.FIELD, ElementType.ANNOTATION_TYPE, ElementType.CONSTRUCTOR,
+            ElementType.PARAMETER, ElementType.TYPE_USE})
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface List {
+
+        MatchesFormat[] value();
+
+    }
+
+}
@@ -24,4 +24,26 @@ public @interface QueryObject {
      */
     int defaultAPI() default 0;
 
+    /**
+     * 设置是否缓存拼接结果，默认是 false
+     * <p>
+     *     开启后拼接得到的 {@link java.net.URI} 及字符串会按照 URI 及对象的值（{@link Object#equals(Object)} 及
+     *     {@link Object#hashCode()}）缓存在有界的缓存中，重复拼接相等的对象只需要一次查找，
+     *     适用于不可变的常量或者取值组合有限的查询对象。
+     * </p>
+     * <p>
+     *     <font style="color:red;">
+     *     <b>注意：</b> 开启缓存的对象需要正确实现 equals 及 hashCode，并且在拼接之后不能再被修改，
+     *     否则会得到过期的拼接结果；没有重写 equals 及 hashCode 时会忽略该设置
+     *     </font>
+     * </p>
+     * @return 返回值为 boolean 类型
+     * <ul>
+     *     <li><b>缓存拼接结果</b> - 返回 {@code true}</li>
+     *     <li><b>不缓存拼接结果</b> - 返回 {@code false}</li>
+     * </ul>
+     * @see cn.zmdo.web.common.util.UriSplicedUtils#getSpliceCacheStatistics()
+     */
+    boolean cacheable() default false;
+
 }
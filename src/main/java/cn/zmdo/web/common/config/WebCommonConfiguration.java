@@ -2,12 +2,19 @@ package cn.zmdo.web.common.config;
 
 import cn.zmdo.web.common.i18n.MessageBundle;
 import cn.zmdo.web.common.i18n.ResponseMessageHandler;
+import cn.zmdo.web.common.response.R;
 import cn.zmdo.web.common.response.ResponseBodyHandlerManager;
+import cn.zmdo.web.common.response.StandardResponseModule;
+import cn.zmdo.web.common.util.QueryObjectRegistry;
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
 
 @Configuration
 @ComponentScan("cn.zmdo.web.common.response")
@@ -19,7 +26,7 @@ public class WebCommonConfiguration {
     /**
      * 响应内容处理器管理器
      * <p>
-     *     里面自动注入了国际化的包
+     *     里面自动注入了国际化的包，注册之后提前编译处理器链
      * </p>
      * @return {@link ResponseBodyHandlerManager 响应内容处理器管理器实体对象}
      */
@@ -31,7 +38,42 @@ public class WebCommonConfiguration {
                         new MessageBundle(messageSource)
                 )
         );
+        responseBodyHandlerManager.compile();
         return responseBodyHandlerManager;
     }
 
+    /**
+     * 标准响应的 Jackson 模块
+     * <p>
+     *     {@link R} 及 {@link cn.zmdo.web.common.response.Page} 使用专用的序列化器，
+     *     Spring Boot 会自动将该模块注册到全局的 {@link com.fasterxml.jackson.databind.ObjectMapper}
+     * </p>
+     * @return {@link StandardResponseModule 标准响应的 Jackson 模块}
+     */
+    @Bean
+    public Module standardResponseModule() {
+        return new StandardResponseModule();
+    }
+
+    /**
+     * 启动时登记查询对象
+     * <p>
+     *     扫描 {@code zmdo.web.query-object.scan-packages} 指定的包（逗号分隔），错误的
+     *     {@link cn.zmdo.web.common.annotation.QueryObject} 声明会导致启动失败。没有指定时不会扫描。
+     * </p>
+     * @param scanPackages 需要扫描的包
+     * @return 在所有单例初始化之后执行扫描的回调
+     * @see QueryObjectRegistry#scan(String...)
+     */
+    @Bean
+    public SmartInitializingSingleton queryObjectRegistrar(
+            @Value("${zmdo.web.query-object.scan-packages:}") String scanPackages) {
+        return () -> {
+            String[] packages = StringUtils.tokenizeToStringArray(scanPackages, ",");
+            if (packages.length > 0) {
+                QueryObjectRegistry.scan(packages);
+            }
+        };
+    }
+
 }
@@ -2,6 +2,7 @@ package cn.zmdo.web.common.i18n;
 
 import cn.zmdo.web.common.response.IResponseBodyHandler;
 import cn.zmdo.web.common.response.R;
+import cn.zmdo.web.common.response.ResponseBodyContext;
 import lombok.Data;
 
 /**
@@ -36,29 +37,37 @@ public class ResponseMessageHandler implements IResponseBodyHandler {
         return order;
     }
 
-    public <T> R<T> handle(R<T> response) {
-        R<T> newResponse;
+    /**
+     * 只处理需要国际化翻译消息的响应
+     * @return {@link IResponseBodyHandler#APPLY_TO_TRANSLATION}
+     */
+    @Override
+    public int conditions() {
+        return APPLY_TO_TRANSLATION;
+    }
 
-        if(Boolean.TRUE == response.getNeedTranslateMessage()) {
+    @Override
+    public <T> R<T> handle(R<T> response) {
+        ResponseBodyContext<T> context = new ResponseBodyContext<>(response);
+        handle(context);
+        return context.toResponse();
+    }
 
-            // 初始化响应结果
-            newResponse = new R<>(
-                    response.getCode(),
-                    null,
-                    response.getData()
-            );
+    @Override
+    public <T> void handle(ResponseBodyContext<T> context) {
+        if(Boolean.TRUE == context.getNeedTranslateMessage()) {
 
             // 将消息进行国际化翻译
             String message = messageBundle.get(
-                    response.getMessage(),
-                    response.getMessageParams());
-            newResponse.setMessage(message);
+                    context.getMessage(),
+                    context.getMessageParams());
+            context.setMessage(message);
 
-        } else {
-            newResponse = response.clone();
-        }
+            // 已经翻译过的消息不再需要国际化属性
+            context.setNeedTranslateMessage(null);
+            context.setMessageParams(null);
 
-        return newResponse;
+        }
     }
 
 }
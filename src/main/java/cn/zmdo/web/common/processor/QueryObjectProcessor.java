@@ -0,0 +1,371 @@
+package cn.zmdo.web.common.processor;
+
+import cn.zmdo.web.common.annotation.QueryObject;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * {@link QueryObject} 注解处理器
+ * <p>
+ *     在编译时为每个被 {@link QueryObject} 标注的类生成一个名为 {@code 类名_QuerySplicer} 的
+ *     {@link cn.zmdo.web.common.util.QuerySplicer 拼接器}，拼接器直接调用 public 的 getter 读取属性，
+ *     并预先计算好允许访问的API集合，{@link cn.zmdo.web.common.util.UriSplicedUtils} 会优先使用它，
+ *     因此拼接时既不需要反射，也可以在 native image 中使用。
+ * </p>
+ * <p>
+ *     处理器通过 {@code META-INF/services} 自动注册，同时会在编译时检查 {@link QueryObject} 的声明，
+ *     例如没有声明API、{@link QueryObject#defaultAPI()} 越界或者标注在接口上时会给出警告，
+ *     不生成拼接器，与没有处理器时一样使用反射进行拼接。
+ * </p>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 如果 getter 由 lombok 生成，请将 lombok 放在注解处理器列表中本处理器之前，
+ *     否则处理器无法看到这些 getter，会给出警告并继续使用反射进行拼接；private 的类同样无法生成拼接器。
+ *     </font>
+ * </p>
+ */
+@SupportedAnnotationTypes("cn.zmdo.web.common.annotation.QueryObject")
+public class QueryObjectProcessor extends AbstractProcessor {
+
+    /** 生成的拼接器的类名后缀，与 {@code QuerySplicers} 保持一致 */
+    private static final String SUFFIX = "_QuerySplicer";
+
+    /** lombok 生成 getter 的注解 */
+    private static final String LOMBOK_GETTER = "lombok.Getter";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(QueryObject.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "@QueryObject 只有标注在类上时才能生成拼接器，拼接时将使用反射", element);
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            QueryObject queryObject = type.getAnnotation(QueryObject.class);
+            if (!checkDeclaration(type, queryObject) || !isAccessible(type)) {
+                continue;
+            }
+            Map<String, ExecutableElement> getters = getters(type);
+            if (!hasGeneratedGetters(type, getters)) {
+                continue;
+            }
+            try {
+                generate(type, queryObject, getters);
+            } catch (IOException e) {
+                error(type, "无法生成拼接器：" + e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 检查 {@link QueryObject} 的声明
+     * <p>
+     *     这些声明在运行时才会出错（拼接时才会用到默认API），因此只给出警告，不生成拼接器，交给反射处理
+     * </p>
+     * @param type 被标注的类
+     * @param queryObject 注解
+     * @return 可以生成拼接器时返回 {@code true}
+     */
+    private boolean checkDeclaration(TypeElement type, QueryObject queryObject) {
+        String[] uris = queryObject.value();
+        if (uris.length == 0) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "@QueryObject 没有声明任何API，拼接时将使用反射", type);
+            return false;
+        }
+        if (queryObject.defaultAPI() < 0 || queryObject.defaultAPI() >= uris.length) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, String.format(
+                    "@QueryObject 的默认API索引 %d 超出范围，共 %d 个API，拼接时将使用反射",
+                    queryObject.defaultAPI(), uris.length), type);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 判断生成的拼接器能否访问该类
+     * @param type 被标注的类
+     * @return 同一个包中可以访问时返回 {@code true}
+     */
+    private boolean isAccessible(TypeElement type) {
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL && type.getNestingKind() != NestingKind.MEMBER) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "局部类及匿名类无法生成拼接器，拼接时将使用反射", type);
+            return false;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "private 的类无法生成拼接器，拼接时将使用反射", type);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 判断 lombok 等其他注解处理器生成的 getter 是否已经可见
+     * <p>
+     *     本处理器先于 lombok 运行时看不到 lombok 生成的 getter，生成的拼接器不会写出任何参数，
+     *     因此类有实例字段却没有 getter，或者 lombok 标注的字段没有对应的 getter 时不生成拼接器，继续使用反射进行拼接。
+     * </p>
+     * @param type 被标注的类
+     * @param getters 找到的 getter
+     * @return getter 完整时返回 {@code true}
+     */
+    private boolean hasGeneratedGetters(TypeElement type, Map<String, ExecutableElement> getters) {
+        boolean lombokType = hasAnnotation(type, LOMBOK_GETTER, "lombok.Data", "lombok.Value");
+        boolean hasFields = false;
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            hasFields = true;
+            if ((lombokType || hasAnnotation(field, LOMBOK_GETTER)) && !getters.containsKey(propertyName(field))) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, String.format(
+                        "找不到字段'%s'的 getter，lombok 可能在本处理器之后运行，拼接时将使用反射", field.getSimpleName()), type);
+                return false;
+            }
+        }
+        if (hasFields && getters.isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "类中有字段但找不到任何 getter，拼接时将使用反射", type);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * lombok 为字段生成的 getter 对应的属性名，{@code boolean isXxx} 字段的 getter 为 {@code isXxx()}
+     */
+    private static String propertyName(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (field.asType().getKind() == TypeKind.BOOLEAN && name.length() > 2
+                && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+            return decapitalize(name.substring(2));
+        }
+        return name;
+    }
+
+    private void generate(TypeElement type, QueryObject queryObject, Map<String, ExecutableElement> getters)
+            throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1)
+                .replace('$', '_') + SUFFIX;
+        String typeName = typeName(type);
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * {@link ").append(type.getQualifiedName()).append("} 的拼接器，由 ")
+                .append(QueryObjectProcessor.class.getSimpleName()).append(" 生成，请勿修改\n")
+                .append(" */\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements cn.zmdo.web.common.util.QuerySplicer<").append(typeName).append("> {\n\n");
+
+        String[] uris = queryObject.value();
+        source.append("    private static final java.util.Set<String> ALLOWED_URIS = java.util.Collections.unmodifiableSet(\n")
+                .append("            new java.util.HashSet<String>(java.util.Arrays.asList(");
+        for (int i = 0; i < uris.length; i ++) {
+            source.append(i == 0 ? "\n" : ",\n").append("                    ").append(literal(uris[i]));
+        }
+        source.append(")));\n\n");
+
+        source.append("    @Override\n")
+                .append("    public String getDefaultUri() {\n")
+                .append("        return ").append(literal(uris[queryObject.defaultAPI()])).append(";\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public java.util.Set<String> getAllowedUris() {\n")
+                .append("        return ALLOWED_URIS;\n")
+                .append("    }\n\n");
+
+        if (queryObject.cacheable() && !overridesEquals(type)) {
+            // 没有重写 equals 时只能按引用缓存，既不会命中又会占满缓存
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "没有重写 equals 及 hashCode，忽略 cacheable 设置", type);
+        } else if (queryObject.cacheable()) {
+            source.append("    @Override\n")
+                    .append("    public boolean isCacheable() {\n")
+                    .append("        return true;\n")
+                    .append("    }\n\n");
+        }
+
+        source.append("    @Override\n")
+                .append("    public void writeTo(").append(typeName)
+                .append(" obj, cn.zmdo.web.common.util.QueryParameterSink sink) {\n");
+        for (Map.Entry<String, ExecutableElement> entry : getters.entrySet()) {
+            ExecutableElement getter = entry.getValue();
+            String call = "obj." + getter.getSimpleName() + "()";
+            TypeKind kind = getter.getReturnType().getKind();
+            if (kind == TypeKind.CHAR) {
+                // char 会被拓宽为 long，需要先转换为字符串
+                source.append("        sink.add(").append(literal(entry.getKey()))
+                        .append(", String.valueOf(").append(call).append("));\n");
+            } else if (kind.isPrimitive()) {
+                source.append("        sink.add(").append(literal(entry.getKey()))
+                        .append(", ").append(call).append(");\n");
+            } else {
+                source.append("        sink.addValue(").append(literal(entry.getKey()))
+                        .append(", ").append(call).append(");\n");
+            }
+        }
+        source.append("    }\n\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * 查找所有 public 的 getter，与 JavaBeans 的规则一致，{@code getClass()} 除外
+     * @param type 被标注的类
+     * @return 按属性名排序的 getter
+     */
+    private Map<String, ExecutableElement> getters(TypeElement type) {
+        Map<String, ExecutableElement> getters = new TreeMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)
+                    || !method.getParameters().isEmpty() || !method.getTypeParameters().isEmpty()) {
+                continue;
+            }
+            String name = method.getSimpleName().toString();
+            TypeKind returnKind = method.getReturnType().getKind();
+            String property;
+            if (name.startsWith("get") && name.length() > 3 && returnKind != TypeKind.VOID && !"getClass".equals(name)) {
+                property = decapitalize(name.substring(3));
+            } else if (name.startsWith("is") && name.length() > 2 && returnKind == TypeKind.BOOLEAN) {
+                property = decapitalize(name.substring(2));
+            } else {
+                continue;
+            }
+            // 同时存在 isXxx 与 getXxx 时优先使用 isXxx
+            if (!getters.containsKey(property) || name.startsWith("is")) {
+                getters.put(property, method);
+            }
+        }
+        return getters;
+    }
+
+    /**
+     * 判断类（或其父类）是否重写了 equals，equals 由 lombok 生成时同样视为已重写
+     * @param type 被标注的类
+     * @return 重写了 equals 时返回 {@code true}
+     */
+    private boolean overridesEquals(TypeElement type) {
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if ("equals".equals(method.getSimpleName().toString())
+                    && method.getParameters().size() == 1
+                    && "java.lang.Object".equals(method.getParameters().get(0).asType().toString())
+                    && !"java.lang.Object".equals(((TypeElement) method.getEnclosingElement()).getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return hasAnnotation(type, "lombok.EqualsAndHashCode", "lombok.Data", "lombok.Value");
+    }
+
+    /**
+     * 判断元素是否被任意一个注解标注，用于识别 lombok 等只在源码中保留的注解
+     * @param element 类或字段
+     * @param annotationNames 注解的完整类名
+     * @return 被其中一个注解标注时返回 {@code true}
+     */
+    private static boolean hasAnnotation(Element element, String... annotationNames) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            for (String annotationName : annotationNames) {
+                if (annotationName.equals(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 与 {@link java.beans.Introspector#decapitalize(String)} 的规则一致
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * 类在源码中的名称，泛型类使用通配符
+     */
+    private static String typeName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getQualifiedName());
+        int count = type.getTypeParameters().size();
+        for (int i = 0; i < count; i ++) {
+            name.append(i == 0 ? "<?" : ", ?");
+        }
+        return count > 0 ? name.append('>').toString() : name.toString();
+    }
+
+    /**
+     * 转换为 Java 字符串字面量
+     */
+    private static String literal(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i ++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                default:
+                    if (ch < 0x20 || ch > 0x7E) {
+                        builder.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        builder.append(ch);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+}
@@ -0,0 +1,117 @@
+package cn.zmdo.web.common.response;
+
+import cn.zmdo.web.common.annotation.ErrorCode;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * 错误码枚举值的描述
+ * <p>
+ *     每个错误码枚举类只会在第一次使用时通过反射读取一次 {@code code()}、{@code message()} 以及 {@link ErrorCode} 注解，
+ *     按枚举值的序号保存在 {@link ClassValue} 中，之后创建失败结果只需要一次数组查找。
+ * </p>
+ * <p>
+ *     对象是不可变的，可以被多个线程共享。
+ * </p>
+ * @see R#failure(Enum, Object...)
+ */
+final class ErrorCodeDescriptor {
+
+    private static final ClassValue<ErrorCodeDescriptor[]> DESCRIPTORS = new ClassValue<ErrorCodeDescriptor[]>() {
+        @Override
+        protected ErrorCodeDescriptor[] computeValue(Class<?> type) {
+            return describe(type);
+        }
+    };
+
+    /** 错误码 */
+    private final int code;
+
+    /** 错误消息，没有 {@code message()} 方法时为枚举名 */
+    private final String message;
+
+    /** 是否需要国际化翻译消息 */
+    private final boolean translate;
+
+    /** 消息前缀，没有配置则为 {@code null} */
+    private final String messagePrefix;
+
+    private ErrorCodeDescriptor(int code, String message, boolean translate, String messagePrefix) {
+        this.code = code;
+        this.message = message;
+        this.translate = translate;
+        this.messagePrefix = messagePrefix;
+    }
+
+    /**
+     * 获取错误码枚举值的描述
+     * @param errorCode 错误码枚举类的一个值
+     * @return 描述
+     * @throws RuntimeException 如果枚举类没有被 {@link ErrorCode} 注解标注，或没有 {@code code()} 方法，就会抛出此异常
+     */
+    static ErrorCodeDescriptor of(Enum<?> errorCode) {
+        return DESCRIPTORS.get(errorCode.getDeclaringClass())[errorCode.ordinal()];
+    }
+
+    private static ErrorCodeDescriptor[] describe(Class<?> type) {
+        ErrorCode errorCodeAnno = type.getAnnotation(ErrorCode.class);
+        if (errorCodeAnno == null) {
+            throw new RuntimeException("不能使用未注解的 ErrorCode");
+        }
+        String messagePrefix = errorCodeAnno.messagePrefix().isEmpty() ? null : errorCodeAnno.messagePrefix();
+        Object[] constants = type.getEnumConstants();
+        ErrorCodeDescriptor[] descriptors = new ErrorCodeDescriptor[constants.length];
+        try {
+            // 获取错误码标准值及国际化的 message 方法，如果没有 message 方法，那么就将枚举名作为 message
+            Method codeMethod = accessible(type.getMethod("code"));
+            Method messageIdMethod = null;
+            for (Method method : type.getMethods()) {
+                if (method.getName().equals("message") && method.getParameterCount() == 0) {
+                    messageIdMethod = accessible(method);
+                    break;
+                }
+            }
+            for (Object constant : constants) {
+                int code = (int) codeMethod.invoke(constant);
+                String message = messageIdMethod != null
+                        ? (String) messageIdMethod.invoke(constant) : ((Enum<?>) constant).name();
+                descriptors[((Enum<?>) constant).ordinal()] =
+                        new ErrorCodeDescriptor(code, message, errorCodeAnno.translate(), messagePrefix);
+            }
+        } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+        return descriptors;
+    }
+
+    private static Method accessible(Method method) {
+        try {
+            // 非 public 的枚举类中的 public 方法同样需要可以调用
+            method.setAccessible(true);
+        } catch (RuntimeException ignored) {
+            // 所在模块未开放时只能调用 public 类的方法
+        }
+        return method;
+    }
+
+    /**
+     * 创建失败结果
+     * @param params 错误码参数，只有需要国际化翻译时才会保存
+     * @param <T> data的类型
+     * @return 失败结果
+     */
+    <T> R<T> toResult(Object[] params) {
+        R<T> result = new R<>(code, message);
+        if (translate) {
+            // 设置国际化属性需要的字段
+            result.setNeedTranslateMessage(true);
+            result.setMessageParams(params);
+        }
+        if (messagePrefix != null) {
+            result.setMessagePrefix(messagePrefix);
+        }
+        return result;
+    }
+
+}
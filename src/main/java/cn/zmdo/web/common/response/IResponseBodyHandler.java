@@ -14,14 +14,52 @@ public interface IResponseBodyHandler {
      */
     int order();
 
+    /**
+     * 处理器适用的响应条件
+     * <p>
+     *     由 {@code APPLY_TO_*} 常量组合而成，响应需要同时满足全部条件才会调用该处理器，
+     *     {@link #APPLY_ALWAYS} 表示适用于所有响应。条件在处理器注册之后读取一次，返回值需要是固定的。
+     * </p>
+     * @return 适用条件的位掩码
+     * @see ResponseBodyHandlerManager#compile()
+     */
+    default int conditions() {
+        return APPLY_ALWAYS;
+    }
+
+    /**
+     * 处理响应
+     * <p>
+     *     直接修改上下文中需要修改的字段，不需要修改时什么也不用做，最终的结果由上下文统一创建。
+     *     默认实现调用 {@link #handle(R)} 并用其返回值替换上下文，重写该方法可以避免每个处理器都创建新的结果。
+     * </p>
+     * @param context 响应体处理上下文
+     * @param <T> 原结果中数据类型
+     */
+    default <T> void handle(ResponseBodyContext<T> context) {
+        context.replace(handle(context.toResponse()));
+    }
+
     /**
      * 预处理方法
-     * @param response 源结果
+     * @param response 源结果，不会被修改
      * @return 处理后的结果
      * @param <T> 原结果中数据类型
      */
     <T> R<T> handle(R<T> response);
 
+    /** 适用于所有响应 */
+    int APPLY_ALWAYS = 0;
+
+    /** 只适用于需要国际化翻译消息的响应 */
+    int APPLY_TO_TRANSLATION = 1;
+
+    /** 只适用于失败（错误码不等于 {@link StandardCode#SUCCESS}）的响应 */
+    int APPLY_TO_FAILURE = 1 << 1;
+
+    /** 只适用于设置了消息前缀的响应 */
+    int APPLY_TO_PREFIX = 1 << 2;
+
     /**
      * 优先级顺序比较器
      */
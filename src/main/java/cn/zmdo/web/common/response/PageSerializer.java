@@ -0,0 +1,50 @@
+package cn.zmdo.web.common.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+
+import java.io.IOException;
+
+/**
+ * {@link Page 页标准返回}的序列化器
+ * <p>
+ *     直接按 {@code currentPage}、{@code pageSize}、{@code total}、{@code records} 的顺序写出，
+ *     每个字段都交给默认的 bean 序列化器中的属性写出，保留 {@code records} 声明的泛型类型及为 {@link Long} 注册的序列化器，
+ *     输出与默认的 bean 序列化相同。
+ * </p>
+ * @see StandardResponseModule
+ */
+final class PageSerializer extends StandardResponseSerializer<Page<?>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final BeanPropertyWriter currentPage;
+
+    private final BeanPropertyWriter pageSize;
+
+    private final BeanPropertyWriter total;
+
+    private final BeanPropertyWriter records;
+
+    /**
+     * @param delegate 默认的 bean 序列化器
+     */
+    PageSerializer(JsonSerializer<Object> delegate) {
+        super(Page.class, delegate);
+        this.currentPage = property("currentPage");
+        this.pageSize = property("pageSize");
+        this.total = property("total");
+        this.records = property("records");
+    }
+
+    @Override
+    void writeFields(Page<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        writeProperty(currentPage, value, gen, provider);
+        writeProperty(pageSize, value, gen, provider);
+        writeProperty(total, value, gen, provider);
+        writeProperty(records, value, gen, provider);
+    }
+
+}
@@ -5,8 +5,6 @@ import cn.zmdo.web.common.annotation.ErrorCode;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.List;
 
 /**
@@ -162,7 +160,8 @@ public class R<T> implements Cloneable {
     /**
      * 根据错误码枚举类返回失败结果
      * <p>
-     *     错误码枚举需要被 {@link ErrorCode} 注解进行标注
+     *     错误码枚举需要被 {@link ErrorCode} 注解进行标注，
+     *     错误码、消息及注解的配置在第一次使用时读取并缓存，{@code code()} 及 {@code message()} 的返回值需要是固定的
      * </p>
      * @param errorCode 错误码枚举类的一个值
      * @param params 错误码参数
@@ -172,61 +171,7 @@ public class R<T> implements Cloneable {
      * @see ErrorCode
      */
     public static <E extends Enum<E>,T> R<T> failure(E errorCode,Object...params) {
-        Class<?> errorCodeClass = errorCode.getClass();
-        if(errorCodeClass.isAnnotationPresent(ErrorCode.class)) {
-
-            int code ;
-            String message;
-
-            try {
-
-                // 获取错误码标准值
-                Method codeMethod = errorCodeClass.getMethod("code");
-                code = (int) codeMethod.invoke(errorCode);
-
-                // 获取国际化的 message 方法
-                Method messageIdMethod = null;
-                Method[] methods = errorCodeClass.getMethods();
-                for (Method method : methods) {
-                    if (method.getName().equals("message") && method.getParameterCount() == 0) {
-                        messageIdMethod = errorCodeClass.getMethod("message");
-                        break;
-                    }
-                }
-
-                // 获取 message 消息，如果没有 message 方法，那么就将枚举名作为 message
-                if (messageIdMethod != null) {
-                    message = (String) messageIdMethod.invoke(errorCode);
-                } else {
-                    message = errorCode.name();
-                }
-
-            } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException  e) {
-                throw new RuntimeException(e);
-            }
-
-            // 创建结果
-            R<T> result = new R<>(code,message);
-
-            // 判断是否需要国际化
-            ErrorCode errorCodeAnno = errorCodeClass.getAnnotation(ErrorCode.class);
-            if (errorCodeAnno.translate()) {
-                // 设置国际化属性需要的字段
-                result.setNeedTranslateMessage(true);
-                result.setMessageParams(params);
-            }
-
-            // 设置前缀
-            if (!errorCodeAnno.messagePrefix().isEmpty()) {
-                result.setMessagePrefix(errorCodeAnno.messagePrefix());
-            }
-
-            // 返回结果
-            return result;
-
-        } else {
-            throw new RuntimeException("不能使用未注解的 ErrorCode");
-        }
+        return ErrorCodeDescriptor.of(errorCode).toResult(params);
     }
 
     /**
@@ -0,0 +1,74 @@
+package cn.zmdo.web.common.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+
+import java.io.IOException;
+
+/**
+ * {@link R 通用返回}的序列化器
+ * <p>
+ *     直接按 {@code code}、{@code message}、{@code data} 的顺序写出，字段名预先编码，
+ *     {@link StandardCode} 中的常量消息同样预先编码，也不需要跳过 {@link com.fasterxml.jackson.annotation.JsonIgnore}
+ *     标注的字段。{@code data} 交给默认的 bean 序列化器中的属性写出，保留声明的泛型类型。
+ *     输出与默认的 bean 序列化相同。
+ * </p>
+ * @see StandardResponseModule
+ */
+final class RSerializer extends StandardResponseSerializer<R<?>> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final SerializedString CODE = new SerializedString("code");
+
+    private static final SerializedString MESSAGE = new SerializedString("message");
+
+    private static final SerializedString SUCCESS_MESSAGE = new SerializedString(StandardCode.SUCCESS_MESSAGE);
+
+    private static final SerializedString FAILURE_MESSAGE = new SerializedString(StandardCode.FAILURE_MESSAGE);
+
+    private static final SerializedString SERVER_ERROR_MESSAGE = new SerializedString(StandardCode.SERVER_ERROR_MESSAGE);
+
+    private final BeanPropertyWriter data;
+
+    /**
+     * @param delegate 默认的 bean 序列化器
+     */
+    RSerializer(JsonSerializer<Object> delegate) {
+        super(R.class, delegate);
+        this.data = property("data");
+    }
+
+    @Override
+    void writeFields(R<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeFieldName(CODE);
+        gen.writeNumber(value.getCode());
+        gen.writeFieldName(MESSAGE);
+        writeMessage(value.getMessage(), gen);
+        writeProperty(data, value, gen, provider);
+    }
+
+    private void writeMessage(String message, JsonGenerator gen) throws IOException {
+        if (message == null) {
+            gen.writeNull();
+            return;
+        }
+        switch (message) {
+            case StandardCode.SUCCESS_MESSAGE:
+                gen.writeString(SUCCESS_MESSAGE);
+                break;
+            case StandardCode.FAILURE_MESSAGE:
+                gen.writeString(FAILURE_MESSAGE);
+                break;
+            case StandardCode.SERVER_ERROR_MESSAGE:
+                gen.writeString(SERVER_ERROR_MESSAGE);
+                break;
+            default:
+                gen.writeString(message);
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package cn.zmdo.web.common.response;
+
+/**
+ * 响应体处理上下文
+ * <p>
+ *     每个请求创建一个上下文，在 {@link IResponseBodyHandler 响应体处理器}之间传递，处理器直接修改上下文中的字段，
+ *     不再各自克隆或重新创建 {@link R}。上下文采用写时复制：没有任何字段被修改时 {@link #toResponse()}
+ *     直接返回原来的结果对象；有修改时只在 {@link #toResponse()} 时创建一次新的结果，源结果始终不会被修改。
+ * </p>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 上下文不是线程安全的，只能在处理同一个请求的线程中使用
+ *     </font>
+ * </p>
+ * @param <T> 结果中的数据类型
+ * @see ResponseBodyHandlerManager#handle(ResponseBodyContext)
+ */
+public class ResponseBodyContext<T> {
+
+    /** 当前字段对应的结果对象，字段被修改之后失效 */
+    private R<T> response;
+
+    /** 字段是否在 {@link #response} 的基础上被修改过 */
+    private boolean modified;
+
+    private int code;
+
+    private String message;
+
+    private T data;
+
+    private Boolean needTranslateMessage;
+
+    private Object[] messageParams;
+
+    private String messagePrefix;
+
+    /**
+     * 创建响应体处理上下文
+     * @param response 源结果，不会被修改
+     */
+    public ResponseBodyContext(R<T> response) {
+        load(response);
+    }
+
+    private void load(R<T> response) {
+        this.response = response;
+        this.modified = false;
+        this.code = response.getCode();
+        this.message = response.getMessage();
+        this.data = response.getData();
+        this.needTranslateMessage = response.getNeedTranslateMessage();
+        this.messageParams = response.getMessageParams();
+        this.messagePrefix = response.getMessagePrefix();
+    }
+
+    /**
+     * 使用另一个结果替换当前的全部字段
+     * <p>
+     *     用于兼容返回新结果的处理器，替换的结果如果没有再被修改，{@link #toResponse()} 会直接返回它
+     * </p>
+     * @param response 新的结果
+     */
+    public void replace(R<T> response) {
+        if (response != this.response || modified) {
+            load(response);
+        }
+    }
+
+    /**
+     * 获取处理后的结果
+     * <p>
+     *     没有修改时直接返回源结果（或最后一次 {@link #replace(R) 替换}的结果），否则创建一个新的结果，
+     *     多次调用之间没有修改时返回同一个对象。
+     * </p>
+     * @return 处理后的结果
+     */
+    public R<T> toResponse() {
+        if (modified) {
+            R<T> result = new R<>(code, message, data);
+            result.setNeedTranslateMessage(needTranslateMessage);
+            result.setMessageParams(messageParams);
+            result.setMessagePrefix(messagePrefix);
+            response = result;
+            modified = false;
+        }
+        return response;
+    }
+
+    /**
+     * 获取当前响应满足的条件
+     * @return 由 {@code IResponseBodyHandler.APPLY_TO_*} 组合而成的位掩码，成功且不需要翻译、没有前缀的响应为 0
+     * @see IResponseBodyHandler#conditions()
+     */
+    public int conditions() {
+        int conditions = IResponseBodyHandler.APPLY_ALWAYS;
+        if (Boolean.TRUE == needTranslateMessage) {
+            conditions |= IResponseBodyHandler.APPLY_TO_TRANSLATION;
+        }
+        if (code != StandardCode.SUCCESS) {
+            conditions |= IResponseBodyHandler.APPLY_TO_FAILURE;
+        }
+        if (messagePrefix != null) {
+            conditions |= IResponseBodyHandler.APPLY_TO_PREFIX;
+        }
+        return conditions;
+    }
+
+    /**
+     * @return 字段是否被修改过，即 {@link #toResponse()} 是否会创建新的结果
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public void setCode(int code) {
+        this.code = code;
+        this.modified = true;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+        this.modified = true;
+    }
+
+    public T getData() {
+        return data;
+    }
+
+    public void setData(T data) {
+        this.data = data;
+        this.modified = true;
+    }
+
+    public Boolean getNeedTranslateMessage() {
+        return needTranslateMessage;
+    }
+
+    public void setNeedTranslateMessage(Boolean needTranslateMessage) {
+        this.needTranslateMessage = needTranslateMessage;
+        this.modified = true;
+    }
+
+    public Object[] getMessageParams() {
+        return messageParams;
+    }
+
+    public void setMessageParams(Object[] messageParams) {
+        this.messageParams = messageParams;
+        this.modified = true;
+    }
+
+    public String getMessagePrefix() {
+        return messagePrefix;
+    }
+
+    public void setMessagePrefix(String messagePrefix) {
+        this.messagePrefix = messagePrefix;
+        this.modified = true;
+    }
+
+}
@@ -1,28 +1,207 @@
 package cn.zmdo.web.common.response;
 
+import java.util.Collection;
 import java.util.TreeSet;
+import java.util.function.Predicate;
 
 /**
  * 响应处理管理器
+ * <p>
+ *     注册的处理器按优先级顺序编译为固定的数组，同时记录每个处理器的 {@link IResponseBodyHandler#conditions() 适用条件}，
+ *     处理响应时直接遍历数组，不适用的处理器只需要一次位运算就会被跳过，不会被调用。
+ *     注册的处理器发生变化时会重新编译。
+ * </p>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 通过迭代器或子集视图修改处理器不会触发重新编译，修改之后需要手动调用 {@link #compile()}
+ *     </font>
+ * </p>
  */
 public class ResponseBodyHandlerManager extends TreeSet<IResponseBodyHandler> {
 
+    /** 编译好的处理器链，为 {@code null} 时在下一次处理响应时编译 */
+    private transient volatile HandlerChain chain;
+
     public ResponseBodyHandlerManager() {
         super(IResponseBodyHandler.ORDER_COMPARATOR);
     }
 
     /**
      * 对响应进行处理
-     * @param response 源响应
-     * @return 处理后的响应
+     * @param response 源响应，不会被修改
+     * @return 处理后的响应，没有处理器修改时返回源响应本身
      * @param <T> 响应中的数据类型
      */
     public <T> R<T> handle(R<T> response) {
-        R<T> result = response;
-        for (IResponseBodyHandler responseBodyHandler : this) {
-            result = responseBodyHandler.handle(result);
+        ResponseBodyContext<T> context = new ResponseBodyContext<>(response);
+        handle(context);
+        return context.toResponse();
+    }
+
+    /**
+     * 依次使用每个适用的处理器处理同一个上下文
+     * <p>
+     *     成功且不需要翻译、没有前缀的响应在所有处理器都有适用条件时会直接返回
+     * </p>
+     * @param context 响应体处理上下文
+     * @param <T> 响应中的数据类型
+     */
+    public <T> void handle(ResponseBodyContext<T> context) {
+        HandlerChain chain = this.chain;
+        if (chain == null) {
+            chain = compile();
+        }
+        int conditions = context.conditions();
+        if (conditions == IResponseBodyHandler.APPLY_ALWAYS && chain.allConditional) {
+            return;
+        }
+        IResponseBodyHandler[] handlers = chain.handlers;
+        int[] required = chain.conditions;
+        for (int i = 0; i < handlers.length; i++) {
+            if ((required[i] & ~conditions) == 0) {
+                handlers[i].handle(context);
+                // 处理器可能改变响应满足的条件，例如翻译之后不再需要翻译
+                conditions = context.conditions();
+            }
+        }
+    }
+
+    /**
+     * 将当前注册的处理器编译为处理器链
+     * <p>
+     *     注册处理器之后会在第一次处理响应时自动编译，也可以在启动时调用以提前编译
+     * </p>
+     * @return 编译好的处理器链
+     */
+    public HandlerChain compile() {
+        HandlerChain compiled = new HandlerChain(toArray(new IResponseBodyHandler[0]));
+        chain = compiled;
+        return compiled;
+    }
+
+    /**
+     * 在修改之后清除处理器链，避免并发编译的处理器链缺少这次修改
+     */
+    private void invalidate() {
+        chain = null;
+    }
+
+    @Override
+    public boolean add(IResponseBodyHandler handler) {
+        try {
+            return super.add(handler);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends IResponseBodyHandler> handlers) {
+        try {
+            return super.addAll(handlers);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean remove(Object handler) {
+        try {
+            return super.remove(handler);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> handlers) {
+        try {
+            return super.removeAll(handlers);
+        } finally {
+            invalidate();
         }
-        return result;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> handlers) {
+        try {
+            return super.retainAll(handlers);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super IResponseBodyHandler> filter) {
+        try {
+            return super.removeIf(filter);
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public IResponseBodyHandler pollFirst() {
+        try {
+            return super.pollFirst();
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public IResponseBodyHandler pollLast() {
+        try {
+            return super.pollLast();
+        } finally {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            super.clear();
+        } finally {
+            invalidate();
+        }
+    }
+
+    /**
+     * 编译好的处理器链
+     * <p>
+     *     对象是不可变的，注册的处理器变化之后会创建新的处理器链
+     * </p>
+     */
+    public static final class HandlerChain {
+
+        /** 按优先级顺序排列的处理器 */
+        private final IResponseBodyHandler[] handlers;
+
+        /** 每个处理器的适用条件 */
+        private final int[] conditions;
+
+        /** 是否所有处理器都有适用条件 */
+        private final boolean allConditional;
+
+        private HandlerChain(IResponseBodyHandler[] handlers) {
+            this.handlers = handlers;
+            this.conditions = new int[handlers.length];
+            boolean allConditional = true;
+            for (int i = 0; i < handlers.length; i++) {
+                conditions[i] = handlers[i].conditions();
+                allConditional &= conditions[i] != IResponseBodyHandler.APPLY_ALWAYS;
+            }
+            this.allConditional = allConditional;
+        }
+
+        /**
+         * @return 处理器的数量
+         */
+        public int size() {
+            return handlers.length;
+        }
+
     }
 
 }
@@ -4,6 +4,8 @@ import cn.zmdo.web.common.exception.IStatusCodeException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.server.ServerHttpRequest;
@@ -11,6 +13,10 @@ import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * 标准响应结果处理
  */
@@ -21,11 +27,40 @@ public class StandardResponseBodyAdvice implements ResponseBodyAdvice<Object> {
     @Autowired
     private ResponseBodyHandlerManager responseBodyHandlerManager;
 
+    /**
+     * 响应处理策略的缓存，按控制器类型及声明的返回类型保存
+     */
+    private static final ClassValue<Map<Type, ResponseStrategy>> STRATEGIES =
+            new ClassValue<Map<Type, ResponseStrategy>>() {
+                @Override
+                protected Map<Type, ResponseStrategy> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    /**
+     * 只处理可能返回 {@link R} 或异常的方法
+     * <p>
+     *     每个控制器方法的声明返回类型只解析一次，返回值不可能是 {@link R} 或异常的方法
+     *     （例如 {@code byte[]}、{@code String} 或 {@code ResponseEntity<Resource>}）直接跳过。
+     * </p>
+     */
     @Override
     public boolean supports(
             MethodParameter returnType,
             Class<? extends HttpMessageConverter<?>> converterType) {
-        return true;
+        return strategyOf(returnType) != ResponseStrategy.PASS_THROUGH;
+    }
+
+    private static ResponseStrategy strategyOf(MethodParameter returnType) {
+        Type type = returnType.getGenericParameterType();
+        Map<Type, ResponseStrategy> strategies = STRATEGIES.get(returnType.getContainingClass());
+        ResponseStrategy strategy = strategies.get(type);
+        if (strategy == null) {
+            strategy = ResponseStrategy.resolve(ResolvableType.forMethodParameter(returnType));
+            strategies.put(type, strategy);
+        }
+        return strategy;
     }
 
     @Override
@@ -37,27 +72,41 @@ public class StandardResponseBodyAdvice implements ResponseBodyAdvice<Object> {
             ServerHttpRequest request,
             ServerHttpResponse response) {
 
-        if (body instanceof R) {
+        switch (strategyOf(returnType)) {
+            case R_PIPELINE:
+                // 声明的返回类型是 R 时不需要再判断是否为异常
+                return body instanceof R ? handleResult((R<?>) body) : body;
+            case EXCEPTION_MAPPING:
+                return handleException(body);
+            default:
+                return body instanceof R ? handleResult((R<?>) body) : handleException(body);
+        }
+    }
 
-            R<?> result;
+    /**
+     * 使用响应处理器处理返回结果
+     * @param body 返回结果
+     * @return 处理后的结果
+     */
+    private Object handleResult(R<?> body) {
+        ResponseBodyContext<?> context = new ResponseBodyContext<>(body);
 
-            // 对返回值进行处理
-            if (responseBodyHandlerManager != null) {
-                // 如果是正常返回值就正常返回
-                result =  responseBodyHandlerManager.handle((R<?>)body);
-            } else {
-                result = ((R<?>) body).clone();
-            }
+        // 对返回值进行处理
+        if (responseBodyHandlerManager != null) {
+            responseBodyHandlerManager.handle(context);
+        }
 
-            // 设置前缀
-            if (result.getMessagePrefix() != null) {
-                result.setMessage(
-                        result.getMessagePrefix() + result.getMessage()
-                );
-            }
+        // 只在有修改时创建一次新的结果
+        return context.toResponse();
+    }
 
-            return result;
-        } else if (body instanceof IStatusCodeException) {
+    /**
+     * 将异常转换为错误结果
+     * @param body 返回值
+     * @return 错误结果，不是异常时原样返回
+     */
+    private Object handleException(Object body) {
+        if (body instanceof IStatusCodeException) {
             // 如果是可预测的服务器异常，那么就返回异常的错误代码
             return new R<>(
                     ((IStatusCodeException) body ).getCode(),
@@ -75,4 +124,50 @@ public class StandardResponseBodyAdvice implements ResponseBodyAdvice<Object> {
         return body;
     }
 
+    /**
+     * 响应处理策略
+     */
+    enum ResponseStrategy {
+
+        /** 返回值一定是 {@link R}，经过响应处理器处理 */
+        R_PIPELINE,
+
+        /** 返回值一定是异常，转换为错误结果 */
+        EXCEPTION_MAPPING,
+
+        /** 声明的返回类型无法确定，按返回值的实际类型处理 */
+        DYNAMIC,
+
+        /** 返回值不可能是 {@link R} 或异常，原样返回 */
+        PASS_THROUGH;
+
+        /**
+         * 根据声明的返回类型解析处理策略，{@link HttpEntity} 按其中的响应体类型解析
+         * <p>
+         *     只按声明的类型本身判断，不考虑同时实现了其它接口的 {@link R} 子类
+         * </p>
+         * @param returnType 声明的返回类型
+         * @return 处理策略
+         */
+        static ResponseStrategy resolve(ResolvableType returnType) {
+            if (HttpEntity.class.isAssignableFrom(returnType.toClass())) {
+                returnType = returnType.as(HttpEntity.class).getGeneric(0);
+            }
+            Class<?> declared = returnType.toClass();
+            if (R.class.isAssignableFrom(declared)) {
+                return R_PIPELINE;
+            }
+            if (Throwable.class.isAssignableFrom(declared) || IStatusCodeException.class.isAssignableFrom(declared)) {
+                return EXCEPTION_MAPPING;
+            }
+            if (declared.isAssignableFrom(R.class) || declared.isAssignableFrom(Exception.class)
+                    || declared.isAssignableFrom(IStatusCodeException.class)) {
+                // Object、Serializable 等父类型的返回值可能是 R，也可能是异常
+                return DYNAMIC;
+            }
+            return PASS_THROUGH;
+        }
+
+    }
+
 }
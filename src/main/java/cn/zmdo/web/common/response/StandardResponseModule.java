@@ -0,0 +1,97 @@
+package cn.zmdo.web.common.response;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+import java.util.Iterator;
+
+/**
+ * 标准响应的 Jackson 模块
+ * <p>
+ *     为 {@link R} 及 {@link Page} 注册专用的序列化器，绕过通用的 bean 序列化。
+ *     只匹配这两个类本身，子类仍然使用默认的 bean 序列化，以免丢失子类中的字段。
+ * </p>
+ * <p>
+ *     专用的序列化器只在默认的 bean 序列化器与默认配置下完全相同时使用：属性的名称及顺序没有变化，
+ *     没有跳过 null 或空值（{@code NON_NULL}、{@code NON_EMPTY}、{@code NON_DEFAULT} 等），
+ *     没有自定义的序列化器、视图及类型信息，也没有为这两个类注册 mix-in。
+ *     命名策略、属性排序等任何一项配置不同时都直接使用默认的 bean 序列化器。
+ * </p>
+ * @see RSerializer
+ * @see PageSerializer
+ */
+public class StandardResponseModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    public StandardResponseModule() {
+        super(StandardResponseModule.class.getSimpleName());
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        context.addBeanSerializerModifier(new StandardResponseSerializerModifier());
+    }
+
+    /**
+     * 将默认配置下 {@link R} 及 {@link Page} 的 bean 序列化器替换为专用的序列化器
+     */
+    private static final class StandardResponseSerializerModifier extends BeanSerializerModifier {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> modifySerializer(
+                SerializationConfig config, BeanDescription beanDesc, JsonSerializer<?> serializer) {
+            Class<?> raw = beanDesc.getBeanClass();
+            if (raw == R.class && isPlain(config, raw, serializer, "code", "message", "data")) {
+                return new RSerializer((JsonSerializer<Object>) serializer);
+            }
+            if (raw == Page.class && isPlain(config, raw, serializer, "currentPage", "pageSize", "total", "records")) {
+                return new PageSerializer((JsonSerializer<Object>) serializer);
+            }
+            return serializer;
+        }
+
+        /**
+         * 判断默认的 bean 序列化器是否与默认配置下完全相同
+         * @param config 序列化配置
+         * @param raw 序列化的类型
+         * @param serializer 默认的 bean 序列化器
+         * @param names 默认配置下按顺序输出的属性名
+         * @return 完全相同时返回 {@code true}
+         */
+        private static boolean isPlain(SerializationConfig config, Class<?> raw, JsonSerializer<?> serializer,
+                                       String... names) {
+            if (!(serializer instanceof BeanSerializerBase) || config.findMixInClassFor(raw) != null) {
+                return false;
+            }
+            Iterator<PropertyWriter> properties = ((BeanSerializerBase) serializer).properties();
+            for (String name : names) {
+                if (!properties.hasNext()) {
+                    return false;
+                }
+                PropertyWriter property = properties.next();
+                if (!(property instanceof BeanPropertyWriter) || !name.equals(property.getName())) {
+                    return false;
+                }
+                BeanPropertyWriter writer = (BeanPropertyWriter) property;
+                if (writer.willSuppressNulls() || writer.hasSerializer() || writer.hasNullSerializer()
+                        || writer.getTypeSerializer() != null || writer.getViews() != null) {
+                    return false;
+                }
+            }
+            return !properties.hasNext();
+        }
+
+    }
+
+}
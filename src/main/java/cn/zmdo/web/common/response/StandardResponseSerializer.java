@@ -0,0 +1,138 @@
+package cn.zmdo.web.common.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * 标准响应序列化器的基类
+ * <p>
+ *     只在全局配置与默认配置相同时使用（由 {@link StandardResponseModule} 判断），直接按固定的顺序写出字段。
+ *     激活了 {@link com.fasterxml.jackson.annotation.JsonView 视图}、引用属性上声明了
+ *     {@link com.fasterxml.jackson.annotation.JsonIgnoreProperties} 或者被展开时，
+ *     交给 Jackson 默认的 bean 序列化器处理，输出总是与默认的 bean 序列化相同。
+ * </p>
+ * @param <T> 序列化的类型
+ */
+abstract class StandardResponseSerializer<T> extends StdSerializer<T>
+        implements ContextualSerializer, ResolvableSerializer {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 默认的 bean 序列化器 */
+    private final JsonSerializer<Object> delegate;
+
+    StandardResponseSerializer(Class<?> type, JsonSerializer<Object> delegate) {
+        super(type, false);
+        this.delegate = delegate;
+    }
+
+    /**
+     * 获取默认的 bean 序列化器中的属性
+     * <p>
+     *     属性的序列化器在 {@link #resolve(SerializerProvider)} 时才确定，并且按照属性声明的类型
+     *     （例如 {@code R<List<Animal>>} 中的 {@code List<Animal>}）查找，
+     *     通过它写出的值与默认的 bean 序列化相同，元素上的类型信息也不会丢失
+     * </p>
+     * @param name 属性名
+     * @return 属性
+     */
+    final BeanPropertyWriter property(String name) {
+        Iterator<PropertyWriter> properties = ((BeanSerializerBase) delegate).properties();
+        while (properties.hasNext()) {
+            PropertyWriter property = properties.next();
+            if (name.equals(property.getName())) {
+                return (BeanPropertyWriter) property;
+            }
+        }
+        throw new IllegalStateException("Property not found: " + name);
+    }
+
+    /**
+     * 通过默认的 bean 序列化器中的属性写出字段，异常的处理与默认的 bean 序列化相同
+     * @param property 属性
+     * @param value 序列化的对象
+     * @param gen JSON 生成器
+     * @param provider 序列化器提供者
+     * @throws IOException 如果写出失败，就会抛出此异常
+     */
+    final void writeProperty(BeanPropertyWriter property, T value, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        try {
+            property.serializeAsField(value, gen, provider);
+        } catch (Exception e) {
+            wrapAndThrow(provider, e, value, property.getName());
+        }
+    }
+
+    /**
+     * 按固定的顺序写出所有字段
+     * @param value 序列化的对象
+     * @param gen JSON 生成器
+     * @param provider 序列化器提供者
+     * @throws IOException 如果写出失败，就会抛出此异常
+     */
+    abstract void writeFields(T value, JsonGenerator gen, SerializerProvider provider) throws IOException;
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (delegate instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) delegate).resolve(provider);
+        }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        // 引用属性上的注解改变了 bean 序列化器时直接使用改变后的序列化器
+        JsonSerializer<?> contextual = provider.handleSecondaryContextualization(delegate, property);
+        return contextual == delegate ? this : contextual;
+    }
+
+    @Override
+    public JsonSerializer<T> unwrappingSerializer(NameTransformer unwrapper) {
+        @SuppressWarnings("unchecked")
+        JsonSerializer<T> unwrapping = (JsonSerializer<T>) delegate.unwrappingSerializer(unwrapper);
+        return unwrapping;
+    }
+
+    @Override
+    public void serialize(T value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (provider.getActiveView() != null) {
+            delegate.serialize(value, gen, provider);
+            return;
+        }
+        gen.writeStartObject(value);
+        writeFields(value, gen, provider);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(T value, JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException {
+        if (provider.getActiveView() != null) {
+            delegate.serializeWithType(value, gen, provider, typeSer);
+            return;
+        }
+        gen.setCurrentValue(value);
+        WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+        writeFields(value, gen, provider);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+}
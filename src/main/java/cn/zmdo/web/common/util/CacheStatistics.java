@@ -0,0 +1,54 @@
+package cn.zmdo.web.common.util;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 缓存统计信息快照
+ * @see StatisticalLruCache
+ * @see StatisticalConcurrentCache
+ */
+@Getter
+@ToString
+public class CacheStatistics {
+
+    /** 命中次数 */
+    private final long hitCount;
+
+    /** 未命中次数 */
+    private final long missCount;
+
+    /** 淘汰次数 */
+    private final long evictionCount;
+
+    /** 当前缓存的元素数量 */
+    private final int size;
+
+    /** 缓存容量上限 */
+    private final int sizeLimit;
+
+    public CacheStatistics(long hitCount, long missCount, long evictionCount, int size, int sizeLimit) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.sizeLimit = sizeLimit;
+    }
+
+    /**
+     * @return 总请求次数
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * 命中率
+     * @return 命中率，没有任何请求时返回 {@code 1.0}
+     */
+    public double getHitRate() {
+        long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+}
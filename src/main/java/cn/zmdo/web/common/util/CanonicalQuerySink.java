@@ -0,0 +1,122 @@
+package cn.zmdo.web.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * 收集参数并按规范顺序写出的接收者
+ * <p>
+ *     规范顺序与对象属性的读取顺序无关：参数按参数名排序，同名参数保持原有的顺序（数组、{@link java.util.List}、
+ *     {@link SortedSet} 及 {@link LinkedHashSet}），其他无序的 {@link Set} 的元素按字符串排序，
+ *     因此同样的查询对象总是得到同样的查询字符串。
+ * </p>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 接收者不是线程安全的
+ *     </font>
+ * </p>
+ */
+final class CanonicalQuerySink implements QueryParameterSink {
+
+    private final boolean omitEmpty;
+
+    private final boolean omitDefault;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @param options 规范化拼接的选项
+     */
+    CanonicalQuerySink(SpliceOption... options) {
+        boolean omitEmpty = false;
+        boolean omitDefault = false;
+        for (SpliceOption option : options) {
+            if (option == SpliceOption.OMIT_EMPTY) {
+                omitEmpty = true;
+            } else if (option == SpliceOption.OMIT_DEFAULT) {
+                omitDefault = true;
+            }
+        }
+        this.omitEmpty = omitEmpty;
+        this.omitDefault = omitDefault;
+    }
+
+    @Override
+    public void add(String name, String value) {
+        if (omitEmpty && value != null && value.isEmpty()) {
+            return;
+        }
+        names.add(name);
+        values.add(value);
+    }
+
+    @Override
+    public void add(String name, long value) {
+        if (!(omitDefault && value == 0)) {
+            add(name, Long.toString(value));
+        }
+    }
+
+    @Override
+    public void add(String name, double value) {
+        if (!(omitDefault && value == 0)) {
+            add(name, Double.toString(value));
+        }
+    }
+
+    @Override
+    public void add(String name, float value) {
+        if (!(omitDefault && value == 0)) {
+            add(name, Float.toString(value));
+        }
+    }
+
+    @Override
+    public void add(String name, boolean value) {
+        if (!(omitDefault && !value)) {
+            add(name, Boolean.toString(value));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void addValue(String name, Object value) {
+        if (value instanceof Set && !(value instanceof SortedSet) && !(value instanceof LinkedHashSet)) {
+            List<String> items = new ArrayList<>();
+            for (Object item : (Collection) value) {
+                items.add(item.toString());
+            }
+            items.sort(null);
+            for (String item : items) {
+                add(name, item);
+            }
+        } else {
+            QueryParameterSink.super.addValue(name, value);
+        }
+    }
+
+    /**
+     * 按规范顺序将收集到的参数写入另一个接收者
+     * @param sink 参数的接收者
+     */
+    void writeTo(QueryParameterSink sink) {
+        int size = names.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i ++) {
+            order[i] = i;
+        }
+        // 稳定排序，同名参数保持原有的顺序
+        Arrays.sort(order, (a, b) -> names.get(a).compareTo(names.get(b)));
+        for (Integer index : order) {
+            sink.add(names.get(index), values.get(index));
+        }
+    }
+
+}
@@ -0,0 +1,744 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.util.exception.StringFormatSignException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static cn.zmdo.web.common.util.FormatSpec.BRACKET_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.COMMA_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.DOT_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.PLUS_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.POUND_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.PREVIOUS_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.SPACE_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.ZERO_BIT;
+
+/**
+ * 预编译的格式化器
+ * <p>
+ *     格式字符串只在编译时解析一次，之后每次格式化都直接按解析结果输出，输出结果与使用编译时的
+ *     {@link Locale} 调用 {@link String#format(Locale, String, Object...)} 完全一致。
+ *     {@code %s} {@code %c} {@code %b} 以及整数的占位符会直接写入 {@link StringBuilder}，
+ *     其余的情况（例如 {@code %f} {@code %e} {@code %a} 等小数占位符、{@link Formattable}、{@link java.math.BigInteger}、
+ *     使用非 ASCII 数字的 {@link Locale}）会交给 {@link Formatter} 处理。
+ *     格式匹配不支持的占位符（例如 {@code %-10s}、{@code %1$s}、{@code %h}、{@code %0,10d}）同样可以编译，
+ *     这些占位符按 {@link Formatter} 的语法切分出来，格式化时交给 {@link Formatter} 处理。
+ * </p>
+ * <p>
+ *     格式化器是不可变的，可以保存为常量并在多个线程中共享。
+ * </p>
+ * <pre>{@code
+ * private static final CompiledFormat ORDER_ID = StringFormatUtils.compileFormat("ORD-%08d");
+ *
+ * ORDER_ID.format(42);                    // "ORD-00000042"
+ * ORDER_ID.appendTo(builder, orderId);    // 直接写入 builder，不产生中间字符串
+ * }</pre>
+ * @see StringFormatUtils#compileFormat(String, Locale)
+ */
+public final class CompiledFormat {
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final char[] UPPER_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i ++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /**
+     * 用于检测 {@link Locale} 数字格式的数值，包含所有的数字及负号
+     */
+    private static final long PROBE = -1234567890123456789L;
+
+    /**
+     * 与 {@link Formatter} 相同的占位符语法：参数索引、标志、宽度、精度、日期前缀及转换符
+     */
+    private static final Pattern SPECIFIER =
+            Pattern.compile("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+    private final String format;
+
+    private final Locale locale;
+
+    /**
+     * 十进制整数是否可以直接输出，即该 {@link Locale} 使用 ASCII 数字及 {@code '-'} 负号
+     */
+    private final boolean decimalSupported;
+
+    /**
+     * 千分位分隔符，{@code '\0'} 表示不分组
+     */
+    private final char groupingSeparator;
+
+    /**
+     * 千分位分组的位数
+     */
+    private final int groupingSize;
+
+    /**
+     * 带 {@code ','} 标志的十进制整数是否可以直接输出
+     */
+    private final boolean groupingSupported;
+
+    /**
+     * 大写的占位符是否可以直接输出，不同版本的 {@link Formatter} 转换大写时使用的 {@link Locale} 不同，
+     * 因此在大小写转换规则特殊的语言中交给 {@link Formatter} 处理
+     */
+    private final boolean upperCaseSupported;
+
+    private final Part[] parts;
+
+    /** 格式化结果的预估长度 */
+    private final int estimatedLength;
+
+    CompiledFormat(String format, Locale locale) {
+        this.format = format;
+        this.locale = locale;
+        List<Object> segments = split(format, locale);
+
+        // 通过 Formatter 本身的输出确定该 Locale 的数字格式，确保与 String.format 一致
+        boolean hasDecimal = false;
+        for (Object segment : segments) {
+            hasDecimal |= segment instanceof FormatSpec.Specifier
+                    && ((FormatSpec.Specifier) segment).getConversion() == 'd';
+        }
+        this.decimalSupported = hasDecimal && String.format(locale, "%d", PROBE).equals(Long.toString(PROBE));
+        String grouped = decimalSupported ? String.format(locale, "%,d", PROBE) : "";
+        int separatorIndex = lastNonDigit(grouped);
+        this.groupingSize = separatorIndex > 0 ? grouped.length() - separatorIndex - 1 : 0;
+        this.groupingSeparator = groupingSize > 0 ? grouped.charAt(separatorIndex) : '\0';
+        this.groupingSupported = decimalSupported
+                && appendDecimal(new StringBuilder(), new Part(COMMA_BIT), PROBE).toString().equals(grouped);
+
+        this.upperCaseSupported = !isSpecialCasing(locale) && !isSpecialCasing(Locale.getDefault());
+
+        this.parts = new Part[segments.size()];
+        int estimatedLength = 0;
+        for (int i = 0; i < parts.length; i ++) {
+            Object segment = segments.get(i);
+            if (segment instanceof String) {
+                parts[i] = new Part((String) segment);
+                estimatedLength += parts[i].literal.length();
+                continue;
+            }
+            parts[i] = segment instanceof FormatSpec.Specifier
+                    ? new Part((FormatSpec.Specifier) segment)
+                    : new Part((MatchResult) segment);
+            estimatedLength += Math.max(parts[i].width, 16);
+        }
+        this.estimatedLength = estimatedLength;
+    }
+
+    /**
+     * @return 格式字符串
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * @return 格式化时使用的 {@link Locale}
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * 格式化参数
+     * @param args 参数
+     * @return 与 {@link String#format(Locale, String, Object...)} 相同的结果
+     * @throws MissingFormatArgumentException 如果参数的个数不足，就会抛出此异常
+     * @throws java.util.IllegalFormatException 如果参数的类型与占位符不符，就会抛出此异常
+     */
+    public String format(Object... args) {
+        return appendTo(new StringBuilder(estimatedLength), args).toString();
+    }
+
+    /**
+     * 格式化一个 int 类型的参数，整数的占位符不会产生装箱
+     * @param value 参数
+     * @return 与 {@link String#format(Locale, String, Object...)} 相同的结果
+     */
+    public String format(int value) {
+        return appendTo(new StringBuilder(estimatedLength), value).toString();
+    }
+
+    /**
+     * 格式化一个 long 类型的参数，整数的占位符不会产生装箱
+     * @param value 参数
+     * @return 与 {@link String#format(Locale, String, Object...)} 相同的结果
+     */
+    public String format(long value) {
+        return appendTo(new StringBuilder(estimatedLength), value).toString();
+    }
+
+    /**
+     * 将格式化结果写入 {@link StringBuilder}
+     * @param builder 输出的目标
+     * @param args 参数
+     * @return 传入的 builder
+     * @see #format(Object...)
+     */
+    public StringBuilder appendTo(StringBuilder builder, Object... args) {
+        int next = 0; // 下一个参数
+        int last = -1; // 上一个使用的参数
+        for (Part part : parts) {
+            if (part.literal != null) {
+                builder.append(part.literal);
+                continue;
+            }
+            int index = part.index >= 0 ? part.index : part.previous ? last : next ++;
+            if (index < 0 || (args != null && index >= args.length)) {
+                throw new MissingFormatArgumentException(part.source);
+            }
+            last = index;
+            appendArgument(builder, part, args == null ? null : args[index]);
+        }
+        return builder;
+    }
+
+    /**
+     * 将格式化结果写入 {@link Appendable}
+     * @param appendable 输出的目标
+     * @param args 参数
+     * @return 传入的 appendable
+     * @throws IOException 写入失败
+     * @see #format(Object...)
+     */
+    public Appendable appendTo(Appendable appendable, Object... args) throws IOException {
+        if (appendable instanceof StringBuilder) {
+            return appendTo((StringBuilder) appendable, args);
+        }
+        return appendable.append(appendTo(new StringBuilder(estimatedLength), args));
+    }
+
+    /**
+     * 将一个 int 类型的参数的格式化结果写入 {@link StringBuilder}，整数的占位符不会产生装箱
+     * @param builder 输出的目标
+     * @param value 参数
+     * @return 传入的 builder
+     */
+    public StringBuilder appendTo(StringBuilder builder, int value) {
+        return appendPrimitive(builder, value, Integer.SIZE);
+    }
+
+    /**
+     * 将一个 long 类型的参数的格式化结果写入 {@link StringBuilder}，整数的占位符不会产生装箱
+     * @param builder 输出的目标
+     * @param value 参数
+     * @return 传入的 builder
+     */
+    public StringBuilder appendTo(StringBuilder builder, long value) {
+        return appendPrimitive(builder, value, Long.SIZE);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledFormat[" + format + "]";
+    }
+
+    /**
+     * 只有一个参数时的格式化
+     * @param bits 参数的位数，负数以十六进制及八进制输出时按该位数转换为无符号数
+     */
+    private StringBuilder appendPrimitive(StringBuilder builder, long value, int bits) {
+        int next = 0; // 下一个参数
+        int last = -1; // 上一个使用的参数
+        for (Part part : parts) {
+            if (part.literal != null) {
+                builder.append(part.literal);
+                continue;
+            }
+            int index = part.index >= 0 ? part.index : part.previous ? last : next ++;
+            if (index != 0) {
+                throw new MissingFormatArgumentException(part.source);
+            }
+            last = index;
+            if (part.fast && isInteger(part.conversion)) {
+                appendInteger(builder, part, value, bits);
+            } else {
+                // 参数的类型决定了 Formatter 的输出，需要按原本的类型装箱
+                Object arg = bits == Integer.SIZE ? (Object) (int) value : (Object) value;
+                appendArgument(builder, part, arg);
+            }
+        }
+        return builder;
+    }
+
+    private void appendArgument(StringBuilder builder, Part part, Object arg) {
+        if (!part.fast) {
+            fallback(builder, part, arg);
+            return;
+        }
+        switch (part.conversion) {
+            case 's':
+            case 'S':
+                if (arg instanceof Formattable) {
+                    fallback(builder, part, arg);
+                } else {
+                    appendText(builder, part, String.valueOf(arg));
+                }
+                break;
+            case 'b':
+            case 'B':
+                appendText(builder, part, arg == null ? "false" : arg instanceof Boolean ? arg.toString() : "true");
+                break;
+            case 'c':
+            case 'C':
+                if (arg instanceof Character && !part.upper) {
+                    pad(builder, part.width - 1);
+                    builder.append((char) (Character) arg);
+                } else if (arg instanceof Character) {
+                    appendText(builder, part, arg.toString());
+                } else {
+                    // 整数需要检查是否为有效的代码点
+                    fallback(builder, part, arg);
+                }
+                break;
+            default:
+                if (arg instanceof Integer) {
+                    appendInteger(builder, part, (Integer) arg, Integer.SIZE);
+                } else if (arg instanceof Long) {
+                    appendInteger(builder, part, (Long) arg, Long.SIZE);
+                } else if (arg instanceof Short) {
+                    appendInteger(builder, part, (Short) arg, Short.SIZE);
+                } else if (arg instanceof Byte) {
+                    appendInteger(builder, part, (Byte) arg, Byte.SIZE);
+                } else {
+                    fallback(builder, part, arg);
+                }
+        }
+    }
+
+    /**
+     * 交给 {@link Formatter} 处理
+     */
+    private void fallback(StringBuilder builder, Part part, Object arg) {
+        new Formatter(builder, locale).format(part.fallback, arg);
+    }
+
+    /**
+     * 输出字符串，按精度截断，按宽度在左侧补空格
+     */
+    private void appendText(StringBuilder builder, Part part, String text) {
+        int length = text.length();
+        if (part.precision >= 0 && part.precision < length) {
+            length = part.precision;
+        }
+        if (part.upper) {
+            text = text.substring(0, length).toUpperCase(locale);
+            length = text.length();
+        }
+        pad(builder, part.width - length);
+        builder.append(text, 0, length);
+    }
+
+    private void appendInteger(StringBuilder builder, Part part, long value, int bits) {
+        if (part.conversion == 'd') {
+            appendDecimal(builder, part, value);
+            return;
+        }
+        // 负数以无符号数的形式输出
+        if (value < 0 && bits < Long.SIZE) {
+            value += 1L << bits;
+        }
+        appendRadix(builder, part, value);
+    }
+
+    private StringBuilder appendDecimal(StringBuilder builder, Part part, long value) {
+        boolean negative = value < 0;
+        boolean bracket = negative && (part.flags & BRACKET_BIT) != 0;
+
+        // 符号
+        char sign = '\0';
+        if (negative) {
+            sign = bracket ? '(' : '-';
+        } else if ((part.flags & PLUS_BIT) != 0) {
+            sign = '+';
+        } else if ((part.flags & SPACE_BIT) != 0) {
+            sign = ' ';
+        }
+        int signLength = sign == '\0' ? 0 : 1;
+
+        // 以负数计算，避免 Long.MIN_VALUE 溢出
+        long magnitude = negative ? value : -value;
+        int digits = 1;
+        for (long t = magnitude; t <= -10; t /= 10) {
+            digits ++;
+        }
+        boolean grouping = (part.flags & COMMA_BIT) != 0 && groupingSeparator != '\0';
+        int length = grouping ? digits + (digits - 1) / groupingSize : digits;
+
+        // 补 0 在符号之后，括号占用一位宽度
+        int zeros = 0;
+        if ((part.flags & ZERO_BIT) != 0) {
+            zeros = Math.max(part.width - (bracket ? 1 : 0) - signLength - length, 0);
+        }
+
+        pad(builder, part.width - (signLength + zeros + length + (bracket ? 1 : 0)));
+        if (signLength > 0) {
+            builder.append(sign);
+        }
+        for (int i = 0; i < zeros; i ++) {
+            builder.append('0');
+        }
+        for (int i = digits - 1; i >= 0; i --) {
+            builder.append((char) ('0' - (magnitude / POWERS_OF_TEN[i]) % 10));
+            if (grouping && i > 0 && i % groupingSize == 0) {
+                builder.append(groupingSeparator);
+            }
+        }
+        if (bracket) {
+            builder.append(')');
+        }
+        return builder;
+    }
+
+    private void appendRadix(StringBuilder builder, Part part, long value) {
+        int shift = part.conversion == 'o' ? 3 : 4;
+        int mask = (1 << shift) - 1;
+        char[] table = part.upper ? UPPER_DIGITS : DIGITS;
+
+        int digits = value == 0 ? 1 : (Long.SIZE - Long.numberOfLeadingZeros(value) + shift - 1) / shift;
+        String prefix = "";
+        if ((part.flags & POUND_BIT) != 0) {
+            prefix = part.conversion == 'o' ? "0" : part.upper ? "0X" : "0x";
+        }
+        int length = prefix.length() + digits;
+        int zeros = (part.flags & ZERO_BIT) != 0 ? Math.max(part.width - length, 0) : 0;
+
+        pad(builder, part.width - length - zeros);
+        builder.append(prefix);
+        for (int i = 0; i < zeros; i ++) {
+            builder.append('0');
+        }
+        for (int i = digits - 1; i >= 0; i --) {
+            builder.append(table[(int) (value >>> (i * shift)) & mask]);
+        }
+    }
+
+    private static void pad(StringBuilder builder, int count) {
+        for (int i = 0; i < count; i ++) {
+            builder.append(' ');
+        }
+    }
+
+    private static boolean isInteger(char conversion) {
+        return conversion == 'd' || conversion == 'x' || conversion == 'X' || conversion == 'o';
+    }
+
+    /**
+     * 判断是否为大小写转换规则特殊的语言
+     */
+    private static boolean isSpecialCasing(Locale locale) {
+        String language = locale.getLanguage();
+        return "tr".equals(language) || "az".equals(language) || "lt".equals(language);
+    }
+
+    /**
+     * 查找最后一个非数字字符的位置
+     */
+    private static int lastNonDigit(String text) {
+        for (int i = text.length() - 1; i >= 0; i --) {
+            char ch = text.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 按 {@link Formatter} 的语法切分格式字符串
+     * <p>
+     *     普通字符（包括 {@code %%} {@code %n}，按 {@link Formatter} 的规则输出，例如 {@code %n} 为
+     *     {@link System#lineSeparator()}）合并为字符串；格式匹配能够解析的占位符解析为 {@link FormatSpec.Specifier}，
+     *     其余的占位符保留匹配结果，格式化时交给 {@link Formatter} 处理。
+     * </p>
+     * @throws StringFormatSignException 如果占位符不符合 {@link Formatter} 的语法，就会抛出此异常
+     */
+    private static List<Object> split(String format, Locale locale) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        Matcher matcher = SPECIFIER.matcher(format);
+        int i = 0;
+        while (i < format.length()) {
+            int percent = format.indexOf('%', i);
+            if (percent < 0) {
+                literal.append(format, i, format.length());
+                break;
+            }
+            literal.append(format, i, percent);
+            if (!matcher.region(percent, format.length()).lookingAt()) {
+                throw new StringFormatSignException(String.format("无效的占位符'%s'", format.substring(percent)));
+            }
+            String source = matcher.group();
+            i = matcher.end();
+            char conversion = source.charAt(source.length() - 1);
+            if (conversion == '%' || conversion == 'n') {
+                literal.append(render(locale, source));
+                continue;
+            }
+            if (literal.length() > 0) {
+                segments.add(literal.toString());
+                literal.setLength(0);
+            }
+            FormatSpec.Specifier specifier = matcher.group(1) == null ? parseSpecifier(source) : null;
+            if (specifier != null) {
+                segments.add(specifier);
+            } else {
+                render(locale, source);
+                segments.add(matcher.toMatchResult());
+            }
+        }
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+        }
+        return segments;
+    }
+
+    /**
+     * 尝试按格式匹配的规则解析单个占位符
+     * @return 解析结果，无法解析时返回 {@code null}
+     */
+    private static FormatSpec.Specifier parseSpecifier(String source) {
+        try {
+            List<FormatSpec.Segment> segments = StringFormatUtils.parseFormatSpec(source).getSegments();
+            if (segments.size() == 1 && segments.get(0) instanceof FormatSpec.Specifier
+                    && source.equals(segments.get(0).getSource())) {
+                return (FormatSpec.Specifier) segments.get(0);
+            }
+        } catch (StringFormatSignException ignored) {
+            // 格式匹配不支持的占位符交给 Formatter 处理
+        }
+        return null;
+    }
+
+    /**
+     * 交给 {@link Formatter} 的占位符，去掉参数索引及 {@code '<'}，参数由格式化器选择
+     */
+    private static String fallbackOf(MatchResult specifier) {
+        String index = specifier.group(1);
+        return "%" + specifier.group().substring(1 + (index == null ? 0 : index.length())).replace("<", "");
+    }
+
+    /**
+     * 使用 {@link Formatter} 输出不需要参数的占位符，需要参数的占位符只检查语法
+     * @return 输出的字符，需要参数时返回 {@code null}
+     * @throws StringFormatSignException 如果 {@link Formatter} 无法解析占位符，就会抛出此异常
+     */
+    private static String render(Locale locale, String source) {
+        try {
+            return new Formatter(new StringBuilder(), locale).format(source).toString();
+        } catch (MissingFormatArgumentException e) {
+            // 语法正确，只是缺少参数
+            return null;
+        } catch (IllegalFormatException e) {
+            throw new StringFormatSignException(String.format("无效的占位符'%s'：%s", source, e.getMessage()));
+        }
+    }
+
+    /**
+     * 判断占位符的原文是否与解析结果一致
+     * <p>
+     *     解析器与 {@link Formatter} 对少数写法的理解不同（例如 {@code "% 05d"} 中的 {@code '0'} 被当作宽度），
+     *     只有原文恰好是解析结果的标准写法（标志的顺序不限）时才直接输出，否则交给 {@link Formatter} 处理。
+     * </p>
+     */
+    private static boolean isCanonical(FormatSpec.Specifier specifier) {
+        String source = specifier.getSource();
+        int i = 1;
+        if (specifier.hasFlag(PREVIOUS_BIT)) {
+            i ++;
+        }
+        int flags = 0;
+        for (; i < source.length(); i ++) {
+            int flag = flagOf(source.charAt(i));
+            if (flag == 0 || (flags & flag) != 0) {
+                break;
+            }
+            flags |= flag;
+        }
+        if (flags != (specifier.getFlags() & ~(DOT_BIT | PREVIOUS_BIT))) {
+            return false;
+        }
+        StringBuilder rest = new StringBuilder();
+        if (specifier.getWidth() > 0) {
+            rest.append(specifier.getWidth());
+        }
+        if (specifier.hasFlag(DOT_BIT)) {
+            rest.append('.').append(specifier.getPrecision());
+        }
+        rest.append(specifier.getConversion());
+        return source.length() - i == rest.length() && source.startsWith(rest.toString(), i);
+    }
+
+    /**
+     * 解析宽度或参数索引，超出 int 范围时视为无效
+     */
+    private static int parseNumber(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            throw new StringFormatSignException(String.format("数值'%s'超出范围", number));
+        }
+    }
+
+    private static int flagOf(char ch) {
+        switch (ch) {
+            case ',':
+                return COMMA_BIT;
+            case '+':
+                return PLUS_BIT;
+            case ' ':
+                return SPACE_BIT;
+            case '0':
+                return ZERO_BIT;
+            case '#':
+                return POUND_BIT;
+            case '(':
+                return BRACKET_BIT;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * 普通字符或格式占位符
+     */
+    private final class Part {
+
+        /** 普通字符，为 {@code null} 时表示格式占位符 */
+        private final String literal;
+
+        /** 占位符的原文 */
+        private final String source;
+
+        /** 交给 {@link Formatter} 处理时使用的占位符，不包含 {@code '<'} */
+        private final String fallback;
+
+        private final char conversion;
+
+        private final int flags;
+
+        /** 宽度，-1 表示未指定 */
+        private final int width;
+
+        /** 精度，-1 表示未指定 */
+        private final int precision;
+
+        private final boolean upper;
+
+        /** 是否使用前一个参数 */
+        private final boolean previous;
+
+        /** 显式指定的参数索引（从 0 开始），-1 表示按顺序或使用前一个参数 */
+        private final int index;
+
+        /** 是否可以直接输出 */
+        private final boolean fast;
+
+        Part(String literal) {
+            this.literal = literal;
+            this.source = null;
+            this.fallback = null;
+            this.conversion = '\0';
+            this.flags = 0;
+            this.width = -1;
+            this.precision = -1;
+            this.upper = false;
+            this.previous = false;
+            this.index = -1;
+            this.fast = false;
+        }
+
+        /**
+         * 用于检测千分位格式的 {@code %d} 占位符
+         */
+        Part(int flags) {
+            this.literal = null;
+            this.source = null;
+            this.fallback = null;
+            this.conversion = 'd';
+            this.flags = flags;
+            this.width = -1;
+            this.precision = -1;
+            this.upper = false;
+            this.previous = false;
+            this.index = -1;
+            this.fast = true;
+        }
+
+        Part(FormatSpec.Specifier specifier) {
+            this.literal = null;
+            this.source = specifier.getSource();
+            this.previous = specifier.hasFlag(PREVIOUS_BIT);
+            this.index = -1;
+            this.fallback = previous ? "%" + source.substring(2) : source;
+            this.conversion = specifier.getConversion();
+            this.flags = specifier.getFlags();
+            this.width = specifier.getWidth() > 0 ? specifier.getWidth() : -1;
+            this.precision = specifier.hasFlag(DOT_BIT) ? specifier.getPrecision() : -1;
+            this.upper = specifier.isUpperCase();
+            this.fast = isCanonical(specifier) && isSupported();
+        }
+
+        /**
+         * 格式匹配不支持的占位符，总是交给 {@link Formatter} 处理
+         * @param specifier 按 {@link Formatter} 的语法匹配的结果
+         */
+        Part(MatchResult specifier) {
+            String flags = specifier.group(2) == null ? "" : specifier.group(2);
+            String index = specifier.group(1);
+            this.literal = null;
+            this.source = specifier.group();
+            this.fallback = fallbackOf(specifier);
+            this.conversion = specifier.group(6).charAt(0);
+            this.flags = 0;
+            this.width = specifier.group(3) == null ? -1 : parseNumber(specifier.group(3));
+            this.precision = -1;
+            this.upper = false;
+            this.previous = flags.indexOf('<') >= 0;
+            // 与 Formatter 相同，'<' 优先于参数索引
+            this.index = previous || index == null ? -1 : parseNumber(index.substring(0, index.length() - 1)) - 1;
+            this.fast = false;
+        }
+
+        private boolean isSupported() {
+            switch (conversion) {
+                case 'S':
+                case 'B':
+                case 'C':
+                    return upperCaseSupported;
+                case 's':
+                case 'b':
+                case 'c':
+                case 'x':
+                case 'X':
+                case 'o':
+                    return true;
+                case 'd':
+                    return (flags & COMMA_BIT) == 0 ? decimalSupported : groupingSupported;
+                default:
+                    return false;
+            }
+        }
+
+    }
+
+}
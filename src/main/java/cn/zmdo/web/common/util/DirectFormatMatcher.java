@@ -0,0 +1,1209 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.util.exception.StringFormatSignException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static cn.zmdo.web.common.util.FormatSpec.BRACKET_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.COMMA_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.DOT_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.PLUS_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.POUND_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.SPACE_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.ZERO_BIT;
+
+/**
+ * 直接匹配的格式匹配器
+ * <p>
+ *     不依赖正则表达式，而是将格式字符串解析为一组匹配单元。与正则表达式相同，长度不固定的单元（字符串、整数及小数）
+ *     选择剩余输入能够匹配的最长长度，因此 {@code "%d%d"}、{@code "%s-%d"} 等相邻的占位符
+ *     与 {@link FormatMatchEngine#REGEX 正则表达式引擎}的结果一致：
+ * </p>
+ * <ul>
+ *     <li>每个长度不固定的单元之后都是它不可能包含的普通字符（例如 {@code "%d-%d"}）或输入的结尾时，
+ *     只有最长的匹配可能成功，从左到右扫描一遍输入即可，不会创建任何对象</li>
+ *     <li>否则从最后一个单元开始，依次计算每个单元从输入的每个位置开始时剩余部分能否匹配，
+ *     时间与内存都为 O(单元数 × 输入长度)</li>
+ * </ul>
+ * @see FormatMatchEngine#DIRECT
+ */
+public final class DirectFormatMatcher implements FormatMatcher {
+
+    /** 连续的十进制数字 */
+    private static final int DIGITS = 0;
+
+    /** 连续的八进制数字 */
+    private static final int OCTAL_DIGITS = 1;
+
+    /** 连续的小写十六进制数字 */
+    private static final int HEX_DIGITS = 2;
+
+    /** 连续的大写十六进制数字 */
+    private static final int UPPER_HEX_DIGITS = 3;
+
+    /** 连续的可以出现在字符串占位符中的字符 */
+    private static final int STRING_CHARS = 4;
+
+    /** 连续的可以出现在大写字符串占位符中的字符 */
+    private static final int UPPER_STRING_CHARS = 5;
+
+    /** 连续的千分位分组 {@code ",ddd"} */
+    private static final int GROUPS = 6;
+
+    private static final int RUN_KINDS = 7;
+
+    private final String format;
+
+    private final Element[] elements;
+
+    /** 占位符的个数 */
+    private final int signCount;
+
+    /** 是否每个单元都只有最长的匹配可能成功 */
+    private final boolean possessive;
+
+    DirectFormatMatcher(FormatSpec spec) {
+        this.format = spec.getFormat();
+        this.elements = compileElements(spec);
+        int signCount = 0;
+        for (Element element : elements) {
+            if (!(element instanceof LiteralElement)) {
+                signCount ++;
+            }
+        }
+        this.signCount = signCount;
+        this.possessive = isPossessive(elements);
+    }
+
+    @Override
+    public String format() {
+        return format;
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        return possessive ? matchGreedy(input, null) : matchBackward(input, null);
+    }
+
+    /**
+     * 匹配并解析出每个占位符对应的值
+     * @param input 需要解析的字符串
+     * @return 解析出的值，如果不符合格式则返回 {@code null}
+     * @see #parse(CharSequence, FormatValues)
+     */
+    public FormatValues parse(CharSequence input) {
+        FormatValues values = new FormatValues();
+        return parse(input, values) ? values : null;
+    }
+
+    /**
+     * 匹配并将每个占位符对应的值解析到指定的对象中
+     * <p>
+     *     不需要回溯的格式在同一次扫描中完成匹配与取值，重复使用同一个 {@link FormatValues} 时不会创建任何对象
+     * </p>
+     * @param input 需要解析的字符串
+     * @param values 用于存放解析结果的对象
+     * @return 返回值为 boolean 类型
+     * <ul>
+     *     <li><b>符合格式</b> - 返回 {@code true}</li>
+     *     <li><b>不符合格式或数值超出范围</b> - 返回 {@code false}</li>
+     * </ul>
+     */
+    public boolean parse(CharSequence input, FormatValues values) {
+        values.reset(input, signCount);
+        return possessive ? matchGreedy(input, values) : matchBackward(input, values);
+    }
+
+    /**
+     * 每个单元都取最长的匹配，从左到右扫描一遍输入
+     * @param input 输入
+     * @param values 用于存放解析结果的对象，只匹配时为 {@code null}
+     * @return 输入是否符合格式
+     */
+    private boolean matchGreedy(CharSequence input, FormatValues values) {
+        int end = input.length();
+        int pos = 0;
+        for (Element element : elements) {
+            int stop = element.match(input, pos, end, null);
+            if (stop < 0 || (values != null && !element.extract(input, pos, stop, values))) {
+                return false;
+            }
+            pos = stop;
+        }
+        return pos == end;
+    }
+
+    /**
+     * 从最后一个单元开始，计算每个单元从每个位置开始时剩余部分能够匹配的最长结束位置
+     * <p>
+     *     每个单元从一个位置开始时所有可能的结束位置是一个连续的区间（千分位之后每 4 个字符一个），
+     *     因此只需要记录之后的单元在每个位置之前最近的可以开始的位置，每个位置的计算都是常数时间
+     * </p>
+     * @param input 输入
+     * @param values 用于存放解析结果的对象，只匹配时为 {@code null}
+     * @return 输入是否符合格式
+     */
+    private boolean matchBackward(CharSequence input, FormatValues values) {
+        int end = input.length();
+        Backtrack backtrack = new Backtrack(input, end);
+        // 之后的单元在每个位置之前（包括该位置）最近的可以开始的位置，以及与该位置相差 4 的倍数的最近的位置
+        int[] last = new int[end + 1];
+        int[] last4 = new int[end + 1];
+        Arrays.fill(last, 0, end, -1);
+        Arrays.fill(last4, 0, end, -1);
+        last[end] = end;
+        last4[end] = end;
+
+        // stops[i][pos] 为第 i 个单元从 pos 开始时的结束位置，只在解析时保留
+        int[][] stops = new int[elements.length][];
+        int[] row = null;
+        for (int index = elements.length - 1; index >= 0; index --) {
+            if (row == null || values != null) {
+                row = new int[end + 1];
+            }
+            Element element = elements[index];
+            stops[index] = row;
+            if (index == 0) {
+                // 第一个单元只从输入的开头开始
+                row[0] = backtrack.stop(element, 0, last, last4);
+                break;
+            }
+            for (int pos = 0; pos <= end; pos ++) {
+                row[pos] = backtrack.stop(element, pos, last, last4);
+            }
+            for (int pos = 0; pos <= end; pos ++) {
+                boolean accepted = row[pos] >= 0;
+                last[pos] = accepted ? pos : (pos > 0 ? last[pos - 1] : -1);
+                last4[pos] = accepted ? pos : (pos > 3 ? last4[pos - 4] : -1);
+            }
+        }
+
+        if (stops[0][0] < 0) {
+            return false;
+        }
+        if (values != null) {
+            int pos = 0;
+            for (int index = 0; index < elements.length; index ++) {
+                int stop = stops[index][pos];
+                if (!elements[index].extract(input, pos, stop, values)) {
+                    return false;
+                }
+                pos = stop;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "DirectFormatMatcher[" + format + "]";
+    }
+
+    /**
+     * 判断是否每个单元都只有最长的匹配可能成功
+     * <p>
+     *     长度不固定的单元匹配到的内容中不可能出现之后的普通字符的第一个字符时，更短的匹配之后都不可能是该普通字符；
+     *     最后一个单元只有最长的匹配可能到达输入的结尾
+     * </p>
+     */
+    private static boolean isPossessive(Element[] elements) {
+        for (int i = 0; i + 1 < elements.length; i ++) {
+            Element element = elements[i];
+            if (!element.isVariable()) {
+                continue;
+            }
+            Element next = elements[i + 1];
+            if (!(next instanceof LiteralElement)) {
+                return false;
+            }
+            String text = ((LiteralElement) next).text;
+            if (text.isEmpty() || element.mayContain(text.charAt(0))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将解析后的格式字符串转换为匹配单元
+     * @param spec 解析后的格式字符串
+     * @return 匹配单元
+     */
+    private static Element[] compileElements(FormatSpec spec) {
+        List<Element> elements = new ArrayList<>();
+        for (FormatSpec.Segment segment : spec.getSegments()) {
+            if (segment instanceof FormatSpec.Literal) {
+                elements.add(new LiteralElement(((FormatSpec.Literal) segment).getText()));
+            } else {
+                FormatSpec.Specifier specifier = (FormatSpec.Specifier) segment;
+                Element element = createElement(specifier);
+                element.conversion = specifier.getConversion();
+                elements.add(element);
+            }
+        }
+
+        return elements.toArray(new Element[0]);
+    }
+
+    /**
+     * 根据占位符创建匹配单元，标志位在解析时已经检查过
+     */
+    private static Element createElement(FormatSpec.Specifier specifier) {
+        char conversion = specifier.getConversion();
+        int flags = specifier.getFlags();
+        int number = specifier.getWidth();
+        int decimal = specifier.getPrecision();
+        boolean upper = specifier.isUpperCase();
+        switch (conversion) {
+            case 's':
+            case 'S':
+                if (decimal > 0) {
+                    if (number > decimal) {
+                        return new FixedStringElement(number - decimal, decimal, upper);
+                    } else if (number > 0) {
+                        return new VariableStringElement(number, decimal, upper);
+                    } else {
+                        return new FixedStringElement(0, decimal, upper);
+                    }
+                }
+                return new VariableStringElement(0, -1, upper);
+            case 'c':
+            case 'C':
+                return new FixedStringElement(Math.max(number - 1, 0), 1, upper);
+            case 'b':
+            case 'B':
+                return new BooleanElement(number, decimal, upper);
+            case 'd':
+                return new IntegerElement(flags, number);
+            case 'x':
+            case 'X':
+                return new RadixIntegerElement(16, upper, flags, number);
+            case 'o':
+                return new RadixIntegerElement(8, false, flags, number);
+            case 'f':
+            case 'e':
+            case 'E':
+            case 'a':
+            case 'A':
+                return new FloatElement(specifier);
+            default:
+                throw new StringFormatSignException(String.format("无效的占位符'%c'",conversion));
+        }
+    }
+
+    /**
+     * 判断字符是否可以出现在字符串占位符中
+     * <p>
+     *     与正则表达式中的 {@code "."} 及 {@code "[^a-z]"} 保持一致
+     * </p>
+     */
+    private static boolean isStringChar(char ch, boolean upper) {
+        if (upper) {
+            // 如果是大写的占位符，那么就不能存在小写字母
+            return ch < 'a' || ch > 'z';
+        }
+        return ch != '\n' && ch != '\r' && ch != '\u0085' && ch != '\u2028' && ch != '\u2029';
+    }
+
+    private static boolean isDigit(char ch) {
+        return '0' <= ch && ch <= '9';
+    }
+
+    /**
+     * 统计从 pos 开始连续的某个字符的个数
+     */
+    private static int count(CharSequence input, int pos, int end, char ch) {
+        int i = pos;
+        while (i < end && input.charAt(i) == ch) {
+            i ++;
+        }
+        return i - pos;
+    }
+
+    /**
+     * 统计从 pos 开始连续的某个字符的个数，最多统计 max 个
+     */
+    private static int count(CharSequence input, int pos, int end, char ch, int max) {
+        return count(input, pos, Math.min(end, pos + max), ch);
+    }
+
+    /**
+     * 判断从 pos 开始是否为指定的文本
+     */
+    private static boolean regionMatches(CharSequence input, int pos, int end, String text) {
+        int length = text.length();
+        if (end - pos < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i ++) {
+            if (input.charAt(pos + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取从 pos 开始某一类连续字符的结束位置
+     * @param input 输入
+     * @param pos 开始位置
+     * @param limit 最大的结束位置
+     * @param kind 字符的类别，例如 {@link #DIGITS}
+     * @param backtrack 回溯匹配时使用缓存的结果，否则为 {@code null}
+     * @return 结束位置，不超过 limit
+     */
+    private static int scan(CharSequence input, int pos, int limit, int kind, Backtrack backtrack) {
+        if (backtrack != null) {
+            return Math.min(backtrack.runEnd(kind, pos), limit);
+        }
+        int i = pos;
+        int step;
+        while (i < limit && (step = step(input, i, limit, kind)) > 0) {
+            i += step;
+        }
+        return i;
+    }
+
+    /**
+     * 判断从 pos 开始是否为某一类字符
+     * @return 该类字符的长度，不是则返回 0
+     */
+    private static int step(CharSequence input, int pos, int end, int kind) {
+        char ch = input.charAt(pos);
+        switch (kind) {
+            case DIGITS:
+                return isDigit(ch) ? 1 : 0;
+            case OCTAL_DIGITS:
+                return ('0' <= ch && ch <= '7') ? 1 : 0;
+            case HEX_DIGITS:
+                return (isDigit(ch) || ('a' <= ch && ch <= 'f')) ? 1 : 0;
+            case UPPER_HEX_DIGITS:
+                return (isDigit(ch) || ('A' <= ch && ch <= 'F')) ? 1 : 0;
+            case STRING_CHARS:
+                return isStringChar(ch, false) ? 1 : 0;
+            case UPPER_STRING_CHARS:
+                return isStringChar(ch, true) ? 1 : 0;
+            default:
+                return (pos + 3 < end
+                        && ch == ','
+                        && isDigit(input.charAt(pos + 1))
+                        && isDigit(input.charAt(pos + 2))
+                        && isDigit(input.charAt(pos + 3))) ? 4 : 0;
+        }
+    }
+
+    /**
+     * 回溯匹配时使用的状态
+     * <p>
+     *     缓存每一类连续字符在每个位置的结束位置，使得每个单元的每次匹配都只需要常数时间，
+     *     并记录单元最近一次匹配时所有可能的结束位置
+     * </p>
+     */
+    private static final class Backtrack {
+
+        private final CharSequence input;
+
+        private final int end;
+
+        private final int[][] runs = new int[RUN_KINDS][];
+
+        /** 最短的匹配的结束位置，-1 表示与最长的匹配相同 */
+        int shortest;
+
+        /**
+         * shortest 到该位置之间的每个位置都可以结束，之后到最长的匹配之间每 4 个字符（千分位分组）可以结束，
+         * -1 表示与最长的匹配相同
+         */
+        int grouped;
+
+        Backtrack(CharSequence input, int end) {
+            this.input = input;
+            this.end = end;
+        }
+
+        /**
+         * 只有最长的匹配
+         */
+        void exact() {
+            shortest = -1;
+            grouped = -1;
+        }
+
+        int runEnd(int kind, int pos) {
+            int[] run = runs[kind];
+            if (run == null) {
+                run = new int[end + 1];
+                run[end] = end;
+                for (int i = end - 1; i >= 0; i --) {
+                    int step = step(input, i, end, kind);
+                    run[i] = step > 0 ? run[i + step] : i;
+                }
+                runs[kind] = run;
+            }
+            return run[pos];
+        }
+
+        /**
+         * 获取单元从 pos 开始、并且之后的单元能够匹配剩余输入的最长的结束位置
+         * @param element 匹配单元
+         * @param pos 开始位置
+         * @param last 之后的单元在每个位置之前最近的可以开始的位置
+         * @param last4 之后的单元在每个位置之前最近的、与该位置相差 4 的倍数的可以开始的位置
+         * @return 结束位置，没有则返回 -1
+         */
+        int stop(Element element, int pos, int[] last, int[] last4) {
+            exact();
+            int longest = element.match(input, pos, end, this);
+            if (longest < 0) {
+                return -1;
+            }
+            int grouped = this.grouped < 0 ? longest : this.grouped;
+            int shortest = this.shortest < 0 ? grouped : this.shortest;
+            if (longest > grouped) {
+                int stop = last4[longest];
+                if (stop > grouped) {
+                    return stop;
+                }
+            }
+            int stop = last[grouped];
+            return stop >= shortest ? stop : -1;
+        }
+
+    }
+
+    /**
+     * 匹配单元
+     */
+    private abstract static class Element {
+
+        /** 占位符字符 */
+        char conversion;
+
+        /**
+         * 从指定位置开始尽可能多地匹配
+         * <p>
+         *     backtrack 不为 {@code null} 时，长度不固定的单元还需要记录更短的可能的结束位置（{@link Backtrack#shortest}
+         *     及 {@link Backtrack#grouped}），并通过 backtrack 获取连续字符的结束位置，使得匹配只需要常数时间
+         * </p>
+         * @param input 输入
+         * @param pos 开始位置
+         * @param end 输入的结束位置
+         * @param backtrack 回溯匹配时的状态，不回溯时为 {@code null}
+         * @return 最长的匹配的结束位置，匹配失败返回 -1
+         */
+        abstract int match(CharSequence input, int pos, int end, Backtrack backtrack);
+
+        /**
+         * @return 匹配的长度是否不固定
+         */
+        boolean isVariable() {
+            return true;
+        }
+
+        /**
+         * 判断匹配到的内容中是否可能出现指定的字符
+         * @param ch 字符
+         * @return 可能出现返回 {@code true}
+         */
+        abstract boolean mayContain(char ch);
+
+        /**
+         * 从匹配到的范围中提取值
+         * @param input 输入
+         * @param start 匹配的开始位置
+         * @param stop 匹配的结束位置
+         * @param values 用于存放值的对象
+         * @return 提取成功返回 {@code true}，整数超出 long 的范围或小数超出 double 的范围时返回 {@code false}
+         */
+        boolean extract(CharSequence input, int start, int stop, FormatValues values) {
+            values.add(conversion, 0L, start, stop);
+            return true;
+        }
+
+    }
+
+    /**
+     * 长度固定的匹配单元
+     */
+    private abstract static class FixedElement extends Element {
+
+        @Override
+        boolean isVariable() {
+            return false;
+        }
+
+        @Override
+        boolean mayContain(char ch) {
+            return true;
+        }
+
+    }
+
+    /**
+     * 普通字符
+     */
+    private static final class LiteralElement extends FixedElement {
+
+        private final String text;
+
+        LiteralElement(String text) {
+            this.text = text;
+        }
+
+        @Override
+        int match(CharSequence input, int pos, int end, Backtrack backtrack) {
+            return regionMatches(input, pos, end, text) ? pos + text.length() : -1;
+        }
+
+        @Override
+        boolean extract(CharSequence input, int start, int stop, FormatValues values) {
+            return true;
+        }
+
+    }
+
+    /**
+     * 固定长度的字符串：若干个空格 + 若干个字符
+     */
+    private static final class FixedStringElement extends FixedElement {
+
+        private final int spaces;
+
+        private final int chars;
+
+        private final boolean upper;
+
+        FixedStringElement(int spaces, int chars, boolean upper) {
+            this.spaces = spaces;
+            this.chars = chars;
+            this.upper = upper;
+        }
+
+        @Override
+        int match(CharSequence input, int pos, int end, Backtrack backtrack) {
+            if (end - pos < spaces + chars) {
+                return -1;
+            }
+            if (count(input, pos, pos + spaces, ' ') != spaces) {
+                return -1;
+            }
+            int stop = pos + spaces + chars;
+            for (int i = pos + spaces; i < stop; i ++) {
+                if (!isStringChar(input.charAt(i), upper)) {
+                    return -1;
+                }
+            }
+            return stop;
+        }
+
+        @Override
+        boolean extract(CharSequence input, int start, int stop, FormatValues values) {
+            long value = (conversion == 'c' || conversion == 'C') ? input.charAt(stop - 1) : 0L;
+            values.add(conversion, value, start + spaces, stop);
+            return true;
+        }
+
+    }
+
+    /**
+     * 长度不固定的字符串
+     * <p>
+     *     最小长度到最长的匹配之间的每个长度都可以结束
+     * </p>
+     */
+    private static final class VariableStringElement extends Element {
+
+        private final int min;
+
+        /** 最大长度，-1 表示不限长度 */
+        private final int max;
+
+        private final boolean upper;
+
+        VariableStringElement(int min, int max, boolean upper) {
+            this.min = min;
+            this.max = max;
+            this.upper = upper;
+        }
+
+        @Override
+        int match(CharSequence input, int pos, int end, Backtrack backtrack) {
+            int limit = max < 0 ? end : Math.min(end, pos + max);
+            int i = scan(input, pos, limit, upper ? UPPER_STRING_CHARS : STRING_CHARS, backtrack);
+            if (i - pos < min) {
+                return -1;
+            }
+            if (backtrack != null) {
+                backtrack.shortest = pos + min;
+            }
+            return i;
+        }
+
+        @Override
+        boolean mayContain(char ch) {
+            return isStringChar(ch, upper);
+        }
+
+    }
+
+    /**
+     * 布尔值
+     */
+    private static final class BooleanElement extends FixedElement {
+
+        private final String trueText;
+
+        private final String falseText;
+
+        BooleanElement(int number, int decimal, boolean upper) {
+            this.trueText = pad(upper ? "TRUE" : "true", number, decimal);
+            this.falseText = pad(upper ? "FALSE" : "false", number, decimal);
+        }
+
+        /**
+         * 按照精度截断，并按照宽度在左边补空格
+         */
+        private static String pad(String word, int number, int decimal) {
+            if (0 < decimal && decimal < word.length()) {
+                word = word.substring(0, decimal);
+            }
+            StringBuilder builder = new StringBuilder();
+            for (int i = word.length(); i < number; i ++) {
+                builder.append(' ');
+            }
+            return builder.append(word).toString();
+        }
+
+        @Override
+        int match(CharSequence input, int pos, int end, Backtrack backtrack) {
+            if (regionMatches(input, pos, end, trueText)) {
+                return pos + trueText.length();
+            }
+            if (regionMatches(input, pos, end, falseText)) {
+                return pos + falseText.length();
+            }
+            return -1;
+        }
+
+        @Override
+        boolean extract(CharSequence input, int start, int stop, FormatValues values) {
+            int from = start + count(input, start, stop, ' ');
+            char ch = input.charAt(from);
+            values.add(conversion, (ch == 't' || ch == 'T') ? 1L : 0L, from, stop);
+            return true;
+        }
+
+    }
+
+    /**
+     * 十进制整数
+     */
+    private static final class IntegerElement extends Element {
+
+        /** 累加负数时乘以 10 之前允许的最小值 */
+        private static final long NEGATIVE_LIMIT = Long.MIN_VALUE / 10;
+
+        /** 累加负数时在 NEGATIVE_LIMIT 上允许追加的最大数字 */
+        private static final int NEGATIVE_LAST_DIGIT = (int) -(Long.MIN_VALUE % 10);
+
+        private final int width;
+
+        private final boolean comma;
+
+        private final boolean plus;
+
+        private final boolean bracket;
+
+        private final boolean zero;
+
+        /** 补空格时最多的空格数 */
+        private final int maxSpaces;
+
+        IntegerElement(int flags, int number) {
+            this.width = number;
+            this.comma = (flags & COMMA_BIT) != 0;
+            this.plus = (flags & PLUS_BIT) != 0;
+            this.bracket = (flags & BRACKET_BIT) != 0;
+            this.zero = (flags & ZERO_BIT) != 0;
+            this.maxSpaces = (number > 1 && !zero) ? number - 1 : 0;
+        }
+
+        @Override
+        int match(CharSequence input, int pos, int end, Backtrack backtrack) {
+            int i = pos;
+            int spaces = count(input, i, end, ' ', maxSpaces + 1);
+            if (spaces > maxSpaces) {
+                return -1;
+            }
+            i += spaces;
+            if (i >= end) {
+                return -1;
+            }
+
+            char ch = input.charAt(i);
+            if (ch == '0') {
+                int zeros = count(input, i, end, '0', width);
+                if (zero) {
+                    // 0 本身需要用 0 补满宽度
+                    if (zeros >= width) {
+                        return i + width;
+                    }
+                    // 否则是补了 0 的非零数，设置了加号时必须带符号
+                    return plus ? -1 : matchMagnitude(input, i + zeros, end, backtrack);
+                }
+                // 0 本身需要用空格补满宽度
+                return spaces == maxSpaces ? i + 1 : -1;
+            }
+
+            if (ch == '(') {
+                if (!bracket) {
+                    return -1;
+                }
+                i = matchPaddedMagnitude(input, i + 1, end, backtrack);
+                if (backtrack != null) {
+                    // 右括号之前的部分不能缩短
+                    backtrack.exact();
+                }
+                return (i >= 0 && i < end && input.charAt(i) == ')') ? i + 1 : -1;
+            }
+            if (ch == '+') {
+                return plus ? matchPaddedMagnitude(input, i + 1, end, backtrack) : -1;
+            }
+            if (ch == '-') {
+                // 设置了括号时负数用括号表示
+                return bracket ? -1 : matchPaddedMagnitude(input, i + 1, end, backtrack);
+            }
+            // 设置了加号时必须带符号
+            return plus ? -1 : matchMagnitude(input, i, end, backtrack);
+        }
+
+        @Override
+        boolean mayContain(char ch) {
+            return isDigit(ch) || ch == ' ' || ch == '+' || ch == '-' || ch == '(' || ch == ')' || ch == ',';
+        }
+
+        @Override
+        boolean extract(CharSequence input, int start, int stop, FormatValues values) {
+            int i = start + count(input, start, stop, ' ');
+            int from = i;
+
+            boolean negative = false;
+            char ch = input.charAt(i);
+            if (ch == '-' || ch == '(') {
+                negative = true;
+                i ++;
+            } else if (ch == '+') {
+                i ++;
+            }
+
+            // 按负数累加，这样 Long.MIN_VALUE 也不会溢出
+            long value = 0;
+            for (; i < stop; i ++) {
+                ch = input.charAt(i);
+                if (!isDigit(ch)) {
+                    // 跳过逗号及括号
+                    continue;
+                }
+                int digit = ch - '0';
+                if (value < NEGATIVE_LIMIT || (value == NEGATIVE_LIMIT && digit > NEGATIVE_LAST_DIGIT)) {
+                    return false;
+                }
+                value = value * 10 - digit;
+            }
+            if (!negative) {
+                if (value == Long.MIN_VALUE) {
+                    return false;
+                }
+                value = -value;
+            }
+
+            values.add(conversion, value, from, stop);
+            return true;
+        }
+
+        /**
+         * 匹配符号之后可能补了 0 的非零数
+         */
+        private int matchPaddedMagnitude(CharSequence input, int pos, int end, Backtrack backtrack) {
+            if (zero) {
+                int zeros = count(input, pos, end, '0', width);
+                if (zeros > width - 1) {
+                    return -1;
+                }
+                pos += zeros;
+            }
+            return matchMagnitude(input, pos, end, backtrack);
+        }
+
+        /**
+         * 匹配非零数，第一个数字之后的每一位（千分位时为每一组）都可以结束
+         */
+        private int matchMagnitude(CharSequence input, int pos, int end, Backtrack backtrack) {
+            if (pos >= end) {
+                return -1;
+            }
+            char ch = input.charAt(pos);
+            if (ch < '1' || ch > '9') {
+                return -1;
+            }
+            int i;
+            if (comma) {
+                // 首组最多 3 位，之后每组为 ",ddd"
+                int first = scan(input, pos + 1, Math.min(end, pos + 3), DIGITS, backtrack);
+                i = scan(input, first, end, GROUPS, backtrack);
+                if (backtrack != null) {
+                    backtrack.grouped = first;
+                }
+            } else {
+                i = scan(input, pos + 1, end, DIGITS, backtrack);
+            }
+            if (backtrack != null) {
+                backtrack.shortest = pos + 1;
+            }
+            return i;
+        }
+
+    }
+
+    /**
+     * 小数，包括 {@code %f}、科学计数法 {@code %e} 及十六进制小数 {@code %a}
+     * <p>
+     *     与正则表达式相同，不匹配 {@code NaN} 及 {@code Infinity}
+     * </p>
+     */
+    private static final class FloatElement extends Element {
+
+        private final char type;
+
+        private final boolean upper;
+
+        private final boolean comma;
+
+        private final boolean plus;
+
+        private final boolean space;
+
+        private final boolean bracket;
+
+        /** 补 0 时最多补的 0 的个数 */
+        private final int maxZeros;
+
+        /** 补空格时最多的空格数 */
+        private final int maxSpaces;
+
+        /** 小数部分的位数，-1 表示不固定（十六进制小数） */
+        private final int fractionDigits;
+
+        /** 没有小数部分时是否保留小数点 */
+        private final boolean keepDot;
+
+        FloatElement(FormatSpec.Specifier specifier) {
+            int flags = specifier.getFlags();
+            int number = specifier.getWidth();
+            this.type = Character.toLowerCase(specifier.getConversion());
+            this.upper = specifier.isUpperCase();
+            this.comma = (flags & COMMA_BIT) != 0;
+            this.plus = (flags & PLUS_BIT) != 0;
+            this.space = (flags & SPACE_BIT) != 0;
+            this.bracket = (flags & BRACKET_BIT) != 0;
+            boolean zero = (flags & ZERO_BIT) != 0;
+            this.maxZeros = zero ? Math.max(number - 1, 0) : 0;
+            this.maxSpaces = (number > 1 && !zero) ? number - 1 : 0;
+            if (type == 'a') {
+                // 精度为 0 时按 1 处理
+                this.fractionDigits = (flags & DOT_BIT) != 0 ? Math.max(specifier.getPrecision(), 1) : -1;
+            } else {
+                this.fractionDigits = (flags & DOT_BIT) != 0 ? specifier.getPrecision() : 6;
+            }
+            this.keepDot = (flags & POUND_BIT) != 0;
+        }
+
+        @Override
+        int match(CharSequence input, int pos, int end, Backtrack backtrack) {
+            int spaces = count(input, pos, end, ' ', maxSpaces + 2);
+            int i = pos + spaces;
+            char ch = i < end ? input.charAt(i) : '\0';
+            if (ch == '-' || ch == '(' || ch == '+') {
+                if (spaces > maxSpaces || (ch == '-' && bracket) || (ch == '(' && !bracket) || (ch == '+' && !plus)) {
+                    return -1;
+                }
+                i = matchMagnitude(input, i + 1, end, backtrack);
+                if (ch != '(') {
+                    return i;
+                }
+                if (backtrack != null) {
+                    // 右括号之前的部分不能缩短
+                    backtrack.exact();
+                }
+                return (i >= 0 && i < end && input.charAt(i) == ')') ? i + 1 : -1;
+            }
+            // 非负数，设置了加号时必须带符号，设置了空格时最后一个空格为符号
+            if (plus || spaces > maxSpaces + (space ? 1 : 0) || (space && spaces == 0)) {
+                return -1;
+            }
+            return matchMagnitude(input, i, end, backtrack);
+        }
+
+        @Override
+        boolean mayContain(char ch) {
+            return isDigit(ch) || ('a' <= ch && ch <= 'f') || ('A' <= ch && ch <= 'F') || ch == ' ' || ch == '+'
+                    || ch == '-' || ch == '(' || ch == ')' || ch == ',' || ch == '.' || ch == 'x' || ch == 'X'
+                    || ch == 'p' || ch == 'P';
+        }
+
+        @Override
+        boolean extract(CharSequence input, int start, int stop, FormatValues values) {
+            int from = start + count(input, start, stop, ' ');
+            // 去掉括号及千分位，交给 Double.parseDouble 解析
+            StringBuilder text = new StringBuilder(stop - from);
+            for (int i = from; i < stop; i ++) {
+                char ch = input.charAt(i);
+                if (ch == '(') {
+                    text.append('-');
+                } else if (ch != ')' && ch != ',') {
+                    text.append(ch);
+                }
+            }
+            double value = Double.parseDouble(text.toString());
+            if (Double.isInfinite(value)) {
+                return false;
+            }
+            values.add(conversion, Double.doubleToRawLongBits(value), from, stop);
+            return true;
+        }
+
+        /**
+         * 匹配符号之后的部分
+         */
+        private int matchMagnitude(CharSequence input, int pos, int end, Backtrack backtrack) {
+            int i = pos;
+            if (type == 'a') {
+                if (!regionMatches(input, i, end, upper ? "0X" : "0x")) {
+                    return -1;
+                }
+                i += 2;
+            }
+
+            // 整数部分：可能补了 0，之后为 0 本身或非零数
+            int start = i;
+            int zeros = count(input, i, end, '0', maxZeros + 1);
+            char ch = i + zeros < end ? input.charAt(i + zeros) : '\0';
+            boolean nonzero = type == 'a' ? ch == '1' : ('1' <= ch && ch <= '9');
+            if (nonzero && zeros <= maxZeros) {
+                i += zeros;
+                i = type == 'f' ? matchInteger(input, i, end, backtrack) : i + 1;
+            } else {
+                // 最后一个 0 为整数部分本身，超出补 0 个数的 0 留给后面的元素
+                if (zeros == 0) {
+                    return -1;
+                }
+                i += Math.min(zeros, maxZeros + 1);
+            }
+
+            // 小数部分
+            int integerEnd = i;
+            i = matchFraction(input, i, end, backtrack);
+            if (i < 0 || type == 'f') {
+                if (backtrack != null) {
+                    if (i == integerEnd) {
+                        // 没有小数部分时整数部分的每一位都可以结束（之前的 0 可以看作补的 0 与 0 本身）
+                        backtrack.shortest = start + 1;
+                    } else {
+                        backtrack.exact();
+                    }
+                }
+                return i;
+            }
+
+            // 指数部分
+            if (i >= end || input.charAt(i) != (type == 'a' ? (upper ? 'P' : 'p') : (upper ? 'E' : 'e'))) {
+                return -1;
+            }
+            i ++;
+            int minDigits = 1;
+            if (type == 'e') {
+                // 科学计数法的指数必须带符号，至少 2 位
+                if (i >= end || (input.charAt(i) != '+' && input.charAt(i) != '-')) {
+                    return -1;
+                }
+                i ++;
+                minDigits = 2;
+            } else if (i < end && input.charAt(i) == '-') {
+                i ++;
+            }
+            int stop = scan(input, i, end, DIGITS, backtrack);
+            if (stop - i < minDigits) {
+                return -1;
+            }
+            if (backtrack != null) {
+                backtrack.shortest = i + minDigits;
+            }
+            return stop;
+        }
+
+        /**
+         * 匹配 %f 以非零数字开头的整数部分
+         */
+        private int matchInteger(CharSequence input, int pos, int end, Backtrack backtrack) {
+            if (!comma) {
+                return scan(input, pos + 1, end, DIGITS, backtrack);
+            }
+            // 首组最多 3 位，之后每组为 ",ddd"
+            int first = scan(input, pos + 1, Math.min(end, pos + 3), DIGITS, backtrack);
+            if (backtrack != null) {
+                backtrack.grouped = first;
+            }
+            return scan(input, first, end, GROUPS, backtrack);
+        }
+
+        /**
+         * 匹配小数点及小数部分
+         */
+        private int matchFraction(CharSequence input, int pos, int end, Backtrack backtrack) {
+            if (fractionDigits == 0) {
+                if (keepDot) {
+                    return (pos < end && input.charAt(pos) == '.') ? pos + 1 : -1;
+                }
+                return pos;
+            }
+            if (pos >= end || input.charAt(pos) != '.') {
+                return -1;
+            }
+            int i = pos + 1;
+            if (type == 'a') {
+                int stop = scan(input, i, end, upper ? UPPER_HEX_DIGITS : HEX_DIGITS, backtrack);
+                int digits = stop - i;
+                if (digits == 0 || (fractionDigits > 0 && digits != fractionDigits)) {
+                    return -1;
+                }
+                return stop;
+            }
+            int stop = i + fractionDigits;
+            if (stop > end) {
+                return -1;
+            }
+            for (; i < stop; i ++) {
+                if (!isDigit(input.charAt(i))) {
+                    return -1;
+                }
+            }
+            return stop;
+        }
+
+    }
+
+    /**
+     * 十六进制及八进制整数
+     */
+    private static final class RadixIntegerElement extends Element {
+
+        private final int radix;
+
+        private final boolean zero;
+
+        /** 数字的类别 */
+        private final int digitKind;
+
+        /** "#" 标志对应的前缀 */
+        private final String prefix;
+
+        /** 补 0 时前缀之后最少的位数 */
+        private final int minDigits;
+
+        /** 补空格时最多的空格数 */
+        private final int maxSpaces;
+
+        /** 0 本身需要补的空格数 */
+        private final int zeroSpaces;
+
+        RadixIntegerElement(int radix, boolean upper, int flags, int number) {
+            this.radix = radix;
+            this.zero = (flags & ZERO_BIT) != 0;
+            this.digitKind = radix == 8 ? OCTAL_DIGITS : (upper ? UPPER_HEX_DIGITS : HEX_DIGITS);
+            if ((flags & POUND_BIT) != 0) {
+                this.prefix = radix == 16 ? (upper ? "0X" : "0x") : "0";
+            } else {
+                this.prefix = "";
+            }
+            this.minDigits = Math.max(number - prefix.length(), 1);
+            this.maxSpaces = (number > 1 && !zero) ? number - 1 : 0;
+            this.zeroSpaces = zero ? 0 : Math.max(number - prefix.length() - 1, 0);
+        }
+
+        @Override
+        int match(CharSequence input, int pos, int end, Backtrack backtrack) {
+            int i = pos;
+            int spaces = count(input, i, end, ' ', maxSpaces + 1);
+            if (spaces > maxSpaces) {
+                return -1;
+            }
+            i += spaces;
+            if (!regionMatches(input, i, end, prefix)) {
+                return -1;
+            }
+            i += prefix.length();
+
+            int digits = scan(input, i, end, digitKind, backtrack) - i;
+            if (digits == 0) {
+                return -1;
+            }
+            if (zero) {
+                // 用 0 补满最少位数，超出最少位数时首位不能为 0
+                if (digits < minDigits) {
+                    return -1;
+                }
+                if (input.charAt(i) == '0') {
+                    return i + minDigits;
+                }
+                if (backtrack != null) {
+                    backtrack.shortest = i + minDigits;
+                }
+                return i + digits;
+            }
+            if (input.charAt(i) == '0') {
+                // 0 本身需要用空格补满宽度
+                return spaces == zeroSpaces ? i + 1 : -1;
+            }
+            if (spaces > 0) {
+                // 补了空格时总长度恰好为宽度
+                int padded = minDigits - spaces;
+                return (padded > 0 && digits >= padded) ? i + padded : -1;
+            }
+            // 没有补空格时至少为宽度
+            if (digits < minDigits) {
+                return -1;
+            }
+            if (backtrack != null) {
+                backtrack.shortest = i + minDigits;
+            }
+            return i + digits;
+        }
+
+        @Override
+        boolean mayContain(char ch) {
+            return ch == ' ' || prefix.indexOf(ch) >= 0 || Character.digit(ch, radix) >= 0;
+        }
+
+        @Override
+        boolean extract(CharSequence input, int start, int stop, FormatValues values) {
+            int from = start + count(input, start, stop, ' ');
+            int shift = radix == 16 ? 4 : 3;
+
+            // 按无符号数解析，与 String.format 对负数的输出保持一致
+            long value = 0;
+            for (int i = from + prefix.length(); i < stop; i ++) {
+                if ((value >>> (Long.SIZE - shift)) != 0) {
+                    return false;
+                }
+                value = (value << shift) | Character.digit(input.charAt(i), radix);
+            }
+
+            values.add(conversion, value, from, stop);
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,318 @@
+package cn.zmdo.web.common.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+
+/**
+ * 按行并行匹配文件
+ * <p>
+ *     文件在行边界处被切分为若干段，每一段通过内存映射读取，并在 {@link ForkJoinPool} 中并行匹配，
+ *     每个线程复用自己的匹配函数及解码缓冲区。
+ * </p>
+ * <p>
+ *     行以 {@code '\n'} 分隔，行尾的 {@code '\r'} 会被忽略，因此文件的编码必须兼容 ASCII（例如 UTF-8、GBK）。
+ *     纯 ASCII 的行会直接在映射的内存上匹配，不需要解码。
+ * </p>
+ * @see StringFormatUtils#matchLines(Path, FormatMatcher, Charset, ForkJoinPool, int)
+ */
+final class FormatFileScanner {
+
+    /**
+     * 每一段的默认大小
+     */
+    static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * 查找行边界时每次读取的字节数
+     */
+    private static final int BOUNDARY_BUFFER_SIZE = 8 * 1024;
+
+    private FormatFileScanner() {
+    }
+
+    /**
+     * 逐行匹配文件
+     * @param file 文件路径
+     * @param matcher 格式匹配器
+     * @param charset 文件编码
+     * @param pool 执行匹配的线程池
+     * @param maxFailedOffsets 最多记录的不匹配行的偏移量个数
+     * @param segmentSize 每一段的大小
+     * @return 匹配结果
+     * @throws IOException 读取文件失败
+     */
+    static LineMatchResult scan(Path file, FormatMatcher matcher, Charset charset, ForkJoinPool pool,
+                                int maxFailedOffsets, int segmentSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = splitAtLineBoundaries(channel, segmentSize);
+            if (bounds.length < 2) {
+                return new LineMatchResult(0, 0, new long[0]);
+            }
+            SegmentResult result;
+            try {
+                result = pool.invoke(new SegmentTask(channel, matcher, charset, maxFailedOffsets, bounds, 0, bounds.length - 1));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return new LineMatchResult(
+                    result.lineCount,
+                    result.matchedCount,
+                    Arrays.copyOf(result.failedOffsets, result.failedSize));
+        }
+    }
+
+    /**
+     * 在行边界处切分文件
+     * @return 每一段的边界，第 i 段为 [bounds[i], bounds[i + 1])
+     */
+    private static long[] splitAtLineBoundaries(FileChannel channel, int segmentSize) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[(int) Math.min(size / segmentSize + 2, Integer.MAX_VALUE - 8)];
+        int count = 0;
+        bounds[count ++] = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_BUFFER_SIZE);
+        long start = 0;
+        while (start < size) {
+            long end = start + segmentSize;
+            if (end >= size) {
+                end = size;
+            } else {
+                // 向后找到换行符，使每一段都结束在行尾
+                end = nextLineStart(channel, end - 1, size, buffer);
+            }
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count * 2);
+            }
+            bounds[count ++] = end;
+            start = end;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * 查找从 position 开始的第一个换行符之后的位置
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer buffer) throws IOException {
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i ++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * 一段或若干段的匹配结果
+     */
+    private static final class SegmentResult {
+
+        private long lineCount;
+
+        private long matchedCount;
+
+        private long[] failedOffsets = new long[16];
+
+        private int failedSize;
+
+        private void addFailed(long offset, int maxFailedOffsets) {
+            if (failedSize >= maxFailedOffsets) {
+                return;
+            }
+            if (failedSize == failedOffsets.length) {
+                failedOffsets = Arrays.copyOf(failedOffsets, Math.min(failedSize * 2, maxFailedOffsets));
+            }
+            failedOffsets[failedSize ++] = offset;
+        }
+
+        /**
+         * 合并之后的一段，偏移量仍然保持从小到大的顺序
+         */
+        private SegmentResult merge(SegmentResult next, int maxFailedOffsets) {
+            lineCount += next.lineCount;
+            matchedCount += next.matchedCount;
+            for (int i = 0; i < next.failedSize && failedSize < maxFailedOffsets; i ++) {
+                addFailed(next.failedOffsets[i], maxFailedOffsets);
+            }
+            return this;
+        }
+
+    }
+
+    /**
+     * 匹配若干段的任务，只有一段时直接匹配，否则一分为二并行执行
+     */
+    private static final class SegmentTask extends RecursiveTask<SegmentResult> {
+
+        private final FileChannel channel;
+
+        private final FormatMatcher matcher;
+
+        private final Charset charset;
+
+        private final int maxFailedOffsets;
+
+        private final long[] bounds;
+
+        private final int from;
+
+        private final int to;
+
+        SegmentTask(FileChannel channel, FormatMatcher matcher, Charset charset, int maxFailedOffsets,
+                    long[] bounds, int from, int to) {
+            this.channel = channel;
+            this.matcher = matcher;
+            this.charset = charset;
+            this.maxFailedOffsets = maxFailedOffsets;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SegmentResult compute() {
+            if (to - from == 1) {
+                try {
+                    return scanSegment(bounds[from], bounds[to]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (from + to) >>> 1;
+            SegmentTask left = new SegmentTask(channel, matcher, charset, maxFailedOffsets, bounds, from, middle);
+            SegmentTask right = new SegmentTask(channel, matcher, charset, maxFailedOffsets, bounds, middle, to);
+            left.fork();
+            SegmentResult rightResult = right.compute();
+            return left.join().merge(rightResult, maxFailedOffsets);
+        }
+
+        private SegmentResult scanSegment(long start, long end) throws IOException {
+            long length = end - start;
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("单行长度超过 " + Integer.MAX_VALUE + " 字节，无法进行匹配");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            SegmentResult result = new SegmentResult();
+            LineDecoder decoder = new LineDecoder(buffer, charset);
+            Predicate<CharSequence> predicate = matcher.localMatcher();
+
+            int limit = (int) length;
+            int lineStart = 0;
+            while (lineStart < limit) {
+                // 查找行尾，同时判断是否为纯 ASCII
+                int lineEnd = lineStart;
+                boolean ascii = true;
+                byte b;
+                while (lineEnd < limit && (b = buffer.get(lineEnd)) != '\n') {
+                    ascii &= b >= 0;
+                    lineEnd ++;
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd --;
+                }
+
+                result.lineCount ++;
+                if (predicate.test(decoder.decode(lineStart, lineEnd, ascii))) {
+                    result.matchedCount ++;
+                } else {
+                    result.addFailed(start + lineStart, maxFailedOffsets);
+                }
+                lineStart = next;
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * 将一行字节转换为字符序列，纯 ASCII 的行直接使用映射的内存，其他的行解码到复用的缓冲区
+     */
+    private static final class LineDecoder implements CharSequence {
+
+        private final ByteBuffer buffer;
+
+        private final CharsetDecoder decoder;
+
+        private CharBuffer chars = CharBuffer.allocate(256);
+
+        private int offset;
+
+        private int length;
+
+        LineDecoder(ByteBuffer buffer, Charset charset) {
+            this.buffer = buffer;
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        CharSequence decode(int start, int end, boolean ascii) {
+            if (ascii) {
+                this.offset = start;
+                this.length = end - start;
+                return this;
+            }
+
+            ByteBuffer line = buffer.duplicate();
+            line.limit(end).position(start);
+            int capacity = (int) Math.ceil((end - start) * (double) decoder.maxCharsPerByte());
+            if (chars.capacity() < capacity) {
+                chars = CharBuffer.allocate(capacity);
+            }
+            chars.clear();
+            decoder.reset();
+            decoder.decode(line, chars, true);
+            decoder.flush(chars);
+            chars.flip();
+            return chars;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buffer.get(offset + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            char[] value = new char[length];
+            for (int i = 0; i < length; i ++) {
+                value[i] = charAt(i);
+            }
+            return new String(value);
+        }
+
+    }
+
+}
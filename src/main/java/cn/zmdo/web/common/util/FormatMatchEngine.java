@@ -0,0 +1,47 @@
+package cn.zmdo.web.common.util;
+
+import java.util.function.Function;
+
+/**
+ * 格式匹配引擎
+ * @see StringFormatUtils#compile(String, FormatMatchEngine)
+ */
+public enum FormatMatchEngine {
+
+    /**
+     * 正则表达式引擎
+     * <p>
+     *     将格式字符串转换为正则表达式进行匹配，支持的格式最完整，
+     *     但是复杂的数字格式在较长的输入上可能会产生较多的回溯。
+     * </p>
+     * @see RegexFormatMatcher
+     */
+    REGEX(RegexFormatMatcher::new),
+
+    /**
+     * 直接匹配引擎
+     * <p>
+     *     不依赖正则表达式，直接根据解析出的占位符匹配输入，匹配时间最多为 O(占位符个数 × 输入长度)。
+     *     长度不固定的占位符之后都是可以区分的普通字符时只需要单遍扫描，并且匹配过程中不产生任何对象；
+     *     否则（例如 {@code "%d%d"}、{@code "%s-%d"}）需要 O(占位符个数 × 输入长度) 的额外内存。
+     * </p>
+     * @see DirectFormatMatcher
+     */
+    DIRECT(DirectFormatMatcher::new);
+
+    private final Function<FormatSpec, FormatMatcher> factory;
+
+    FormatMatchEngine(Function<FormatSpec, FormatMatcher> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * 使用该引擎创建匹配器
+     * @param spec 解析后的格式字符串
+     * @return 格式匹配器
+     */
+    FormatMatcher create(FormatSpec spec) {
+        return factory.apply(spec);
+    }
+
+}
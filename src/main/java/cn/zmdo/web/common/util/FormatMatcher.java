@@ -0,0 +1,53 @@
+package cn.zmdo.web.common.util;
+
+import java.util.function.Predicate;
+
+/**
+ * 格式字符串匹配器
+ * <p>
+ *     由 {@link StringFormatUtils#compile(String)} 编译得到，用于判断一个字符串是否
+ *     符合某个格式字符串（例如 {@code "%05d-%s"}）所描述的格式。
+ * </p>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 匹配器的实现都是不可变且线程安全的，可以被多个线程共享使用
+ *     </font>
+ * </p>
+ * @see StringFormatUtils#compile(String)
+ */
+public interface FormatMatcher {
+
+    /**
+     * @return 编译该匹配器所用的格式字符串
+     */
+    String format();
+
+    /**
+     * 判断字符串是否完全符合格式
+     * @param input 需要匹配的字符串
+     * @return 返回值为 boolean 类型
+     * <ul>
+     *     <li><b>符合格式</b> - 返回 {@code true}</li>
+     *     <li><b>不符合格式</b> - 返回 {@code false}</li>
+     * </ul>
+     */
+    boolean matches(CharSequence input);
+
+    /**
+     * 创建一个只在当前线程中使用的匹配函数
+     * <p>
+     *     实现可以在返回的函数中复用匹配过程中需要的对象，适用于在单个线程中进行大量匹配的场景，
+     *     例如逐行匹配一个文件
+     * </p>
+     * <p>
+     *     <font style="color:red;">
+     *     <b>注意：</b> 返回的函数不是线程安全的，不能被多个线程共享
+     *     </font>
+     * </p>
+     * @return 匹配函数
+     */
+    default Predicate<CharSequence> localMatcher() {
+        return this::matches;
+    }
+
+}
@@ -0,0 +1,223 @@
+package cn.zmdo.web.common.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 格式字符串集合
+ * <p>
+ *     用于判断一个字符串符合集合中的哪一个（或哪些）格式。集合会按照每个格式开头的普通字符建立前缀索引，
+ *     匹配时只需沿着输入扫描一次前缀索引，就能筛选出可能匹配的格式，再用结尾的普通字符进一步筛选，
+ *     最后才对剩下的格式进行完整匹配，因此匹配的开销不会随着格式数量线性增长。
+ * </p>
+ * <pre>{@code
+ * FormatSet formats = FormatSet.of("ORDER-%08d", "USER-%s", "%d.%d.%d");
+ * formats.indexOf("USER-tom"); // 1
+ * }</pre>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 格式以占位符开头时无法建立前缀索引，这类格式需要对每个输入都进行匹配
+ *     </font>
+ * </p>
+ */
+public final class FormatSet {
+
+    private final String[] formats;
+
+    private final FormatMatcher[] matchers;
+
+    /** 每个格式结尾的普通字符 */
+    private final String[] suffixes;
+
+    /** 前缀索引的根节点 */
+    private final Node root;
+
+    private FormatSet(List<String> formats, FormatMatchEngine engine) {
+        int size = formats.size();
+        this.formats = formats.toArray(new String[0]);
+        this.matchers = new FormatMatcher[size];
+        this.suffixes = new String[size];
+
+        NodeBuilder rootBuilder = new NodeBuilder();
+        for (int i = 0; i < size; i ++) {
+            String format = this.formats[i];
+            // 集合自己持有匹配器，不经过共享的缓存，以免大量格式挤掉其他地方缓存的匹配器
+            FormatSpec spec = StringFormatUtils.parseFormatSpec(format);
+            matchers[i] = engine.create(spec);
+            suffixes[i] = spec.getLiteralSuffix();
+
+            // 按开头的普通字符插入前缀索引，没有占位符时整个格式都是前缀
+            NodeBuilder node = rootBuilder;
+            String prefix = spec.getLiteralPrefix();
+            for (int j = 0; j < prefix.length(); j ++) {
+                node = node.children.computeIfAbsent(prefix.charAt(j), ch -> new NodeBuilder());
+            }
+            node.templates.add(i);
+        }
+        this.root = rootBuilder.build();
+    }
+
+    /**
+     * 使用默认的 {@link FormatMatchEngine#REGEX 正则表达式引擎}创建格式集合
+     * @param formats 格式字符串
+     * @return 格式集合
+     */
+    public static FormatSet of(String... formats) {
+        return of(Arrays.asList(formats), FormatMatchEngine.REGEX);
+    }
+
+    /**
+     * 创建格式集合
+     * @param formats 格式字符串，格式的索引即为其在集合中的顺序
+     * @param engine 匹配引擎
+     * @return 格式集合
+     */
+    public static FormatSet of(Collection<String> formats, FormatMatchEngine engine) {
+        return new FormatSet(new ArrayList<>(formats), engine);
+    }
+
+    /**
+     * @return 格式的数量
+     */
+    public int size() {
+        return formats.length;
+    }
+
+    /**
+     * 获取格式字符串
+     * @param index 格式的索引
+     * @return 格式字符串
+     */
+    public String getFormat(int index) {
+        return formats[index];
+    }
+
+    /**
+     * 查找输入符合的第一个格式
+     * @param input 需要匹配的字符串
+     * @return 符合的格式中索引最小的一个，如果都不符合则返回 -1
+     */
+    public int indexOf(CharSequence input) {
+        int found = -1;
+        Node node = root;
+        int length = input.length();
+        for (int i = 0; node != null; i ++) {
+            for (int template : node.templates) {
+                if ((found < 0 || template < found) && matches(template, input)) {
+                    found = template;
+                }
+            }
+            node = i < length ? node.child(input.charAt(i)) : null;
+        }
+        return found;
+    }
+
+    /**
+     * 判断输入是否符合集合中的任意一个格式
+     * @param input 需要匹配的字符串
+     * @return 符合任意一个格式时返回 {@code true}
+     */
+    public boolean matchesAny(CharSequence input) {
+        return indexOf(input) >= 0;
+    }
+
+    /**
+     * 查找输入符合的所有格式
+     * @param input 需要匹配的字符串
+     * @return 符合的格式的索引，从小到大排列
+     */
+    public int[] matchAll(CharSequence input) {
+        int[] found = new int[4];
+        int count = 0;
+        Node node = root;
+        int length = input.length();
+        for (int i = 0; node != null; i ++) {
+            for (int template : node.templates) {
+                if (matches(template, input)) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count ++] = template;
+                }
+            }
+            node = i < length ? node.child(input.charAt(i)) : null;
+        }
+        found = Arrays.copyOf(found, count);
+        Arrays.sort(found);
+        return found;
+    }
+
+    private boolean matches(int template, CharSequence input) {
+        String suffix = suffixes[template];
+        int offset = input.length() - suffix.length();
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i ++) {
+            if (input.charAt(offset + i) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return matchers[template].matches(input);
+    }
+
+    /**
+     * 前缀索引的节点
+     */
+    private static final class Node {
+
+        private static final int[] NO_TEMPLATES = new int[0];
+
+        /** 子节点对应的字符，从小到大排列 */
+        private final char[] keys;
+
+        private final Node[] children;
+
+        /** 前缀在此节点结束的格式的索引 */
+        private final int[] templates;
+
+        private Node(char[] keys, Node[] children, int[] templates) {
+            this.keys = keys;
+            this.children = children;
+            this.templates = templates.length == 0 ? NO_TEMPLATES : templates;
+        }
+
+        private Node child(char ch) {
+            int index = Arrays.binarySearch(keys, ch);
+            return index < 0 ? null : children[index];
+        }
+
+    }
+
+    /**
+     * 构建前缀索引时使用的节点
+     */
+    private static final class NodeBuilder {
+
+        private final Map<Character, NodeBuilder> children = new TreeMap<>();
+
+        private final List<Integer> templates = new ArrayList<>();
+
+        private Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, NodeBuilder> entry : children.entrySet()) {
+                keys[i] = entry.getKey();
+                nodes[i] = entry.getValue().build();
+                i ++;
+            }
+            int[] templateArray = new int[templates.size()];
+            for (int j = 0; j < templateArray.length; j ++) {
+                templateArray[j] = templates.get(j);
+            }
+            return new Node(keys, nodes, templateArray);
+        }
+
+    }
+
+}
@@ -0,0 +1,356 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.util.exception.StringFormatSignException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 解析后的格式字符串
+ * <p>
+ *     格式字符串被解析为一组依次排列的片段：{@link Literal 普通字符} 及 {@link Specifier 格式占位符}，
+ *     其中 {@code %%} 与 {@code %n} 会被当作普通字符。解析结果是不可变的，可以被缓存并在多个线程中共享，
+ *     正则表达式、直接匹配、取值以及格式化都是基于它构建的。
+ * </p>
+ * <pre>{@code
+ * FormatSpec spec = StringFormatUtils.analysisFormat("ID-%05d: %s");
+ * // [Literal("ID-"), Specifier('d', ZERO_BIT, 5, 0), Literal(": "), Specifier('s', 0, 0, 0)]
+ * }</pre>
+ * @see StringFormatUtils#analysisFormat(String)
+ */
+public final class FormatSpec {
+
+    public static final int COMMA_BIT   = 0x01; // 逗号
+    public static final int PLUS_BIT    = 0x02; // 加号符号
+    public static final int SPACE_BIT   = 0x04; // 是否补空格
+    public static final int ZERO_BIT    = 0x08; // 是否补 0
+    public static final int DOT_BIT     = 0x10; // 小数点符号
+    public static final int POUND_BIT   = 0x20; // #号
+    public static final int BRACKET_BIT = 0x40; // 括号
+    public static final int PREVIOUS_BIT = 0x80; // "<" 使用前一个参数
+
+    // 字符串只允许 "." 存在
+    private static final int[] STRING_CONFLICTS = new int[]{
+            COMMA_BIT,
+            PLUS_BIT,
+            SPACE_BIT,
+            ZERO_BIT,
+            POUND_BIT,
+            BRACKET_BIT,
+    };
+
+    // 字符输出不支持任何标点符号
+    private static final int[] CHAR_CONFLICTS = new int[]{
+            COMMA_BIT,
+            PLUS_BIT,
+            SPACE_BIT,
+            ZERO_BIT,
+            DOT_BIT,
+            POUND_BIT,
+            BRACKET_BIT,
+    };
+
+    // 十进制整数禁止 小数点 "#"，以及 空格 和 加号 同时出现
+    private static final int[] INTEGER_CONFLICTS = new int[]{
+            DOT_BIT,
+            POUND_BIT,
+            PLUS_BIT | SPACE_BIT,
+    };
+
+    // 十六进制及八进制整数禁止 空格 逗号 括号 小数点 加号
+    private static final int[] RADIX_INTEGER_CONFLICTS = new int[]{
+            COMMA_BIT,
+            PLUS_BIT,
+            SPACE_BIT,
+            DOT_BIT,
+            BRACKET_BIT,
+    };
+
+    // 小数禁止 空格 和 加号 同时出现
+    private static final int[] FLOAT_CONFLICTS = new int[]{
+            SPACE_BIT | PLUS_BIT,
+    };
+
+    // 科学计数法禁止 逗号，以及 空格 和 加号 同时出现
+    private static final int[] SCIENTIFIC_CONFLICTS = new int[]{
+            COMMA_BIT,
+            SPACE_BIT | PLUS_BIT,
+    };
+
+    // 十六进制小数禁止 逗号 括号，以及 空格 和 加号 同时出现
+    private static final int[] HEX_FLOAT_CONFLICTS = new int[]{
+            COMMA_BIT,
+            BRACKET_BIT,
+            SPACE_BIT | PLUS_BIT,
+    };
+
+    /** 原始的格式字符串 */
+    private final String format;
+
+    /** 所有片段 */
+    private final List<Segment> segments;
+
+    /** 所有格式占位符 */
+    private final List<Specifier> specifiers;
+
+    FormatSpec(String format, List<Segment> segments) {
+        this.format = format;
+        this.segments = Collections.unmodifiableList(new ArrayList<>(segments));
+        List<Specifier> specifiers = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment instanceof Specifier) {
+                specifiers.add((Specifier) segment);
+            }
+        }
+        this.specifiers = Collections.unmodifiableList(specifiers);
+    }
+
+    /**
+     * @return 原始的格式字符串
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * @return 所有片段，按在格式字符串中出现的顺序排列
+     */
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    /**
+     * @return 所有格式占位符，按在格式字符串中出现的顺序排列
+     */
+    public List<Specifier> getSpecifiers() {
+        return specifiers;
+    }
+
+    /**
+     * @return 第一个格式占位符之前的普通字符，没有则返回空字符串
+     */
+    public String getLiteralPrefix() {
+        if (!segments.isEmpty() && segments.get(0) instanceof Literal) {
+            return ((Literal) segments.get(0)).getText();
+        }
+        return "";
+    }
+
+    /**
+     * @return 最后一个格式占位符之后的普通字符，没有格式占位符或没有则返回空字符串
+     */
+    public String getLiteralSuffix() {
+        int size = segments.size();
+        if (!specifiers.isEmpty() && segments.get(size - 1) instanceof Literal) {
+            return ((Literal) segments.get(size - 1)).getText();
+        }
+        return "";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof FormatSpec && format.equals(((FormatSpec) o).format));
+    }
+
+    @Override
+    public int hashCode() {
+        return format.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "FormatSpec" + segments;
+    }
+
+    /**
+     * 片段
+     */
+    public interface Segment {
+
+        /**
+         * @return 片段在格式字符串中的原文，例如 {@code "%05d"}
+         */
+        String getSource();
+
+    }
+
+    /**
+     * 普通字符
+     * <p>
+     *     相邻的普通字符会被合并为一个片段
+     * </p>
+     */
+    public static final class Literal implements Segment {
+
+        private final String text;
+
+        private final String source;
+
+        Literal(String text, String source) {
+            this.text = text;
+            this.source = source;
+        }
+
+        /**
+         * @return 普通字符，{@code %%} 及 {@code %n} 已被替换为 {@code '%'} 及 {@code '\n'}
+         */
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String getSource() {
+            return source;
+        }
+
+        @Override
+        public String toString() {
+            return "Literal(\"" + text + "\")";
+        }
+
+    }
+
+    /**
+     * 格式占位符
+     * <p>
+     *     创建时即会检查标志位与占位符是否冲突，因此所有的格式占位符都是合法的
+     * </p>
+     */
+    public static final class Specifier implements Segment {
+
+        /** 原文 */
+        private final String source;
+
+        /** 占位符字符 */
+        private final char conversion;
+
+        /** 标志位 */
+        private final int flags;
+
+        /** 宽度（整数位/特殊符号标志位数），0 表示未指定 */
+        private final int width;
+
+        /** 精度（小数位），0 表示未指定 */
+        private final int precision;
+
+        Specifier(String source, char conversion, int flags, int width, int precision) {
+            this.source = source;
+            this.conversion = conversion;
+            this.flags = flags;
+            this.width = width;
+            this.precision = precision;
+            check();
+        }
+
+        /**
+         * 检查标志位与占位符是否冲突
+         */
+        private void check() {
+            switch (conversion) {
+                case 's':
+                case 'S':
+                case 'b':
+                case 'B':
+                    StringFormatUtils.checkConflict(STRING_CONFLICTS, flags);
+                    break;
+                case 'c':
+                case 'C':
+                    StringFormatUtils.checkConflict(CHAR_CONFLICTS, flags);
+                    break;
+                case 'd':
+                    StringFormatUtils.checkConflict(INTEGER_CONFLICTS, flags);
+                    checkZeroWidth();
+                    break;
+                case 'x':
+                case 'X':
+                case 'o':
+                    StringFormatUtils.checkConflict(RADIX_INTEGER_CONFLICTS, flags);
+                    checkZeroWidth();
+                    break;
+                case 'f':
+                    StringFormatUtils.checkConflict(FLOAT_CONFLICTS, flags);
+                    checkZeroWidth();
+                    break;
+                case 'e':
+                case 'E':
+                    StringFormatUtils.checkConflict(SCIENTIFIC_CONFLICTS, flags);
+                    checkZeroWidth();
+                    break;
+                case 'a':
+                case 'A':
+                    StringFormatUtils.checkConflict(HEX_FLOAT_CONFLICTS, flags);
+                    checkZeroWidth();
+                    break;
+                default:
+                    throw new StringFormatSignException(String.format("无效的占位符'%c'",conversion));
+            }
+        }
+
+        /**
+         * 补 0 标志必须与宽度一起使用
+         */
+        private void checkZeroWidth() {
+            if (hasFlag(ZERO_BIT) && width == 0) {
+                throw new StringFormatSignException("'0'标志必须指定宽度");
+            }
+        }
+
+        @Override
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * @return 占位符字符，例如 {@code 'd'}
+         */
+        public char getConversion() {
+            return conversion;
+        }
+
+        /**
+         * @return 标志位，参见 {@link FormatSpec#COMMA_BIT} 等常量
+         */
+        public int getFlags() {
+            return flags;
+        }
+
+        /**
+         * @return 宽度，0 表示未指定
+         */
+        public int getWidth() {
+            return width;
+        }
+
+        /**
+         * @return 精度，0 表示未指定，是否指定了精度以 {@link FormatSpec#DOT_BIT} 标志为准
+         */
+        public int getPrecision() {
+            return precision;
+        }
+
+        /**
+         * 判断是否设置了某个标志
+         * @param flag 标志位，参见 {@link FormatSpec#COMMA_BIT} 等常量
+         * @return 设置了该标志时返回 {@code true}
+         */
+        public boolean hasFlag(int flag) {
+            return (flags & flag) != 0;
+        }
+
+        /**
+         * @return 是否为大写的占位符，例如 {@code %S} {@code %X}
+         */
+        public boolean isUpperCase() {
+            return Character.isUpperCase(conversion);
+        }
+
+        @Override
+        public String toString() {
+            return "Specifier('" + conversion + "', flags=0x" + Integer.toHexString(flags)
+                    + ", width=" + width + ", precision=" + precision + ")";
+        }
+
+    }
+
+}
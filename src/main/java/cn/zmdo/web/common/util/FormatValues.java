@@ -0,0 +1,197 @@
+package cn.zmdo.web.common.util;
+
+import java.util.Arrays;
+
+/**
+ * 按格式字符串解析出的值
+ * <p>
+ *     每个格式占位符（不包括 {@code %%} 与 {@code %n}）对应一个值，按照占位符在格式字符串中出现的顺序排列，
+ *     值按原始类型保存，不会进行装箱：
+ * </p>
+ * <ul>
+ *     <li>{@code %d} {@code %x} {@code %o} - 通过 {@link #getLong(int)} 获取</li>
+ *     <li>{@code %f} {@code %e} {@code %a} - 通过 {@link #getDouble(int)} 获取</li>
+ *     <li>{@code %b} - 通过 {@link #getBoolean(int)} 获取</li>
+ *     <li>{@code %c} - 通过 {@link #getChar(int)} 获取</li>
+ *     <li>{@code %s} - 通过 {@link #getText(int)} 获取输入中对应的片段</li>
+ * </ul>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 该对象可以被重复使用以避免频繁创建对象，但它不是线程安全的
+ *     </font>
+ * </p>
+ * @see DirectFormatMatcher#parse(CharSequence, FormatValues)
+ * @see StringFormatUtils#parse(String, CharSequence)
+ */
+public final class FormatValues {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /** 被解析的输入 */
+    private CharSequence input;
+
+    /** 值的个数 */
+    private int size;
+
+    /** 每个值对应的占位符字符 */
+    private char[] conversions = new char[DEFAULT_CAPACITY];
+
+    /** 整数、布尔值（1 或 0）、字符及小数（{@link Double#doubleToRawLongBits(double)}）的值 */
+    private long[] values = new long[DEFAULT_CAPACITY];
+
+    /** 每个值在输入中的起始位置 */
+    private int[] starts = new int[DEFAULT_CAPACITY];
+
+    /** 每个值在输入中的结束位置 */
+    private int[] ends = new int[DEFAULT_CAPACITY];
+
+    /**
+     * 重置为新的输入
+     * @param input 被解析的输入
+     * @param capacity 需要的容量
+     */
+    void reset(CharSequence input, int capacity) {
+        this.input = input;
+        this.size = 0;
+        if (conversions.length < capacity) {
+            conversions = Arrays.copyOf(conversions, capacity);
+            values = Arrays.copyOf(values, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+    }
+
+    /**
+     * 追加一个值
+     * @param conversion 占位符字符
+     * @param value 整数、布尔值（1 或 0）、字符或小数（{@link Double#doubleToRawLongBits(double)}）的值，字符串为 0
+     * @param start 值在输入中的起始位置
+     * @param end 值在输入中的结束位置
+     */
+    void add(char conversion, long value, int start, int end) {
+        conversions[size] = conversion;
+        values[size] = value;
+        starts[size] = start;
+        ends[size] = end;
+        size ++;
+    }
+
+    /**
+     * @return 值的个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取值对应的占位符字符
+     * @param index 值的索引
+     * @return 占位符字符，例如 {@code 'd'}
+     */
+    public char getConversion(int index) {
+        checkIndex(index);
+        return conversions[index];
+    }
+
+    /**
+     * 获取 {@code %d} {@code %x} {@code %o} 的值
+     * <p>
+     *     十六进制及八进制按照无符号数解析，与 {@link String#format} 对负数的输出保持一致，
+     *     例如 {@code "fffffffffffffffb"} 的值为 {@code -5}
+     * </p>
+     * @param index 值的索引
+     * @return 整数值
+     */
+    public long getLong(int index) {
+        checkConversion(index, "dxXo");
+        return values[index];
+    }
+
+    /**
+     * 获取 {@code %f} {@code %e} {@code %a} 的值
+     * @param index 值的索引
+     * @return 小数值
+     */
+    public double getDouble(int index) {
+        checkConversion(index, "feEaA");
+        return Double.longBitsToDouble(values[index]);
+    }
+
+    /**
+     * 获取 {@code %b} 的值
+     * @param index 值的索引
+     * @return 布尔值
+     */
+    public boolean getBoolean(int index) {
+        checkConversion(index, "bB");
+        return values[index] != 0;
+    }
+
+    /**
+     * 获取 {@code %c} 的值
+     * @param index 值的索引
+     * @return 字符
+     */
+    public char getChar(int index) {
+        checkConversion(index, "cC");
+        return (char) values[index];
+    }
+
+    /**
+     * 获取值在输入中对应的片段，适用于所有类型的占位符
+     * <p>
+     *     整数及布尔值的片段不包括用于补齐宽度的空格，{@code %s} 的片段只排除固定补齐的空格
+     * </p>
+     * @param index 值的索引
+     * @return 输入中对应的片段
+     */
+    public CharSequence getText(int index) {
+        checkIndex(index);
+        return input.subSequence(starts[index], ends[index]);
+    }
+
+    /**
+     * @param index 值的索引
+     * @return 值在输入中的起始位置
+     */
+    public int getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    /**
+     * @param index 值的索引
+     * @return 值在输入中的结束位置
+     */
+    public int getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("索引 " + index + " 超出范围，共 " + size + " 个值");
+        }
+    }
+
+    private void checkConversion(int index, String conversions) {
+        checkIndex(index);
+        if (conversions.indexOf(this.conversions[index]) < 0) {
+            throw new IllegalStateException(
+                    String.format("第 %d 个值的占位符为'%c'，无法按此类型获取",index,this.conversions[index]));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("FormatValues[");
+        for (int i = 0; i < size; i ++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append('%').append(conversions[i]).append('=').append(getText(i));
+        }
+        return builder.append(']').toString();
+    }
+
+}
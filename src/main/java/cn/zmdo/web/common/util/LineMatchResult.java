@@ -0,0 +1,55 @@
+package cn.zmdo.web.common.util;
+
+import lombok.Getter;
+
+/**
+ * 逐行匹配文件的结果
+ * @see StringFormatUtils#matchLines(java.nio.file.Path, String)
+ */
+@Getter
+public class LineMatchResult {
+
+    /** 总行数 */
+    private final long lineCount;
+
+    /** 符合格式的行数 */
+    private final long matchedCount;
+
+    /**
+     * 不符合格式的行在文件中的起始字节偏移量，按从小到大排列
+     * <p>
+     *     <font style="color:red;">
+     *     <b>注意：</b> 最多只记录指定数量的偏移量，因此其长度可能小于 {@link #getFailedCount()}
+     *     </font>
+     * </p>
+     */
+    private final long[] failedOffsets;
+
+    public LineMatchResult(long lineCount, long matchedCount, long[] failedOffsets) {
+        this.lineCount = lineCount;
+        this.matchedCount = matchedCount;
+        this.failedOffsets = failedOffsets;
+    }
+
+    /**
+     * @return 不符合格式的行数
+     */
+    public long getFailedCount() {
+        return lineCount - matchedCount;
+    }
+
+    /**
+     * @return 所有行是否都符合格式
+     */
+    public boolean isAllMatched() {
+        return lineCount == matchedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "LineMatchResult(lineCount=" + lineCount
+                + ", matchedCount=" + matchedCount
+                + ", failedCount=" + getFailedCount() + ")";
+    }
+
+}
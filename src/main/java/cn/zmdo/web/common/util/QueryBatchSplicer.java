@@ -0,0 +1,194 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.annotation.QueryObject;
+import cn.zmdo.web.common.util.exception.QueryObjectException;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 批量拼接器
+ * <p>
+ *     批量拼接时对象通常属于同一个类并使用同一个URI，拼接器记住上一个对象的类对应的 {@link QuerySplicer}
+ *     以及上一个URI对应的 {@link QueryUriBase}，相同时直接复用，并且重复使用同一个 {@link StringBuilder}
+ *     作为编码缓冲区，每个对象的开销只剩下参数的编码。
+ * </p>
+ * <p>
+ *     对象不是线程安全的，每个线程（或每个 fork-join 子任务）需要使用单独的拼接器。
+ * </p>
+ * @see UriSplicedUtils#spliceAll(Collection)
+ */
+final class QueryBatchSplicer {
+
+    /** 每个 fork-join 子任务最多处理的对象数量 */
+    private static final int LEAF_SIZE = 1024;
+
+    /** 拼接使用的URI字符串，为 {@code null} 时使用对象的 {@link QueryObject#defaultAPI() 默认API} */
+    private final String uri;
+
+    /** 基础URI的解析函数 */
+    private final Function<String, QueryUriBase> bases;
+
+    private final StringBuilder builder = new StringBuilder(128);
+
+    private Class<?> lastType;
+
+    private QuerySplicer<Object> lastSplicer;
+
+    private String lastUri;
+
+    private QueryUriBase lastBase;
+
+    /**
+     * @param uri 拼接使用的URI字符串，为 {@code null} 时使用对象的默认API
+     * @param bases 基础URI的解析函数
+     */
+    QueryBatchSplicer(String uri, Function<String, QueryUriBase> bases) {
+        this.uri = uri;
+        this.bases = bases;
+    }
+
+    /**
+     * 拼接对象并转换为字符串
+     * @param obj 需要拼接的参数对象
+     * @return 拼接好的URI字符串
+     * @throws QueryObjectException 如果对象没有指定URI又没有被 {@link QueryObject} 注解标注，或属性无法读取，就会抛出此异常
+     */
+    String toString(Object obj) {
+        QuerySplicer<Object> splicer = splicerOf(obj);
+        String target = uriOf(splicer);
+        if (splicer.isCacheable()) {
+            return UriSplicedUtils.spliceToString(target, obj);
+        }
+        QueryUriBase base = baseOf(target);
+        builder.setLength(0);
+        QueryStringWriter writer = base.start(builder);
+        splicer.writeTo(obj, writer);
+        return base.finish(writer).toString();
+    }
+
+    /**
+     * 拼接对象
+     * @param obj 需要拼接的参数对象
+     * @return 拼接好的URI
+     * @throws QueryObjectException 如果对象没有指定URI又没有被 {@link QueryObject} 注解标注，或属性无法读取，就会抛出此异常
+     */
+    URI toUri(Object obj) {
+        QuerySplicer<Object> splicer = splicerOf(obj);
+        if (splicer.isCacheable()) {
+            return UriSplicedUtils.splice(uriOf(splicer), obj);
+        }
+        return URI.create(toString(obj));
+    }
+
+    private QuerySplicer<Object> splicerOf(Object obj) {
+        if (obj.getClass() != lastType) {
+            lastSplicer = QuerySplicers.forObject(obj);
+            lastType = obj.getClass();
+        }
+        return lastSplicer;
+    }
+
+    private String uriOf(QuerySplicer<Object> splicer) {
+        if (uri != null) {
+            return uri;
+        }
+        String defaultUri = splicer.getDefaultUri();
+        if (defaultUri == null) {
+            throw new QueryObjectException("未标注注解");
+        }
+        return defaultUri;
+    }
+
+    private QueryUriBase baseOf(String target) {
+        if (!target.equals(lastUri)) {
+            lastBase = bases.apply(target);
+            lastUri = target;
+        }
+        return lastBase;
+    }
+
+    /**
+     * 按输入顺序批量拼接对象
+     * <p>
+     *     对象数量达到 threshold 时拆分为多个子任务在 {@link ForkJoinPool#commonPool()} 中并行处理，
+     *     每个子任务使用单独的拼接器，结果按下标写回，顺序与输入一致。
+     * </p>
+     * @param objs 需要拼接的参数对象
+     * @param threshold 并行处理的对象数量阈值
+     * @param factory 拼接器的创建函数
+     * @param operation 拼接函数
+     * @param <R> 拼接结果的类型
+     * @return 不可修改的拼接结果列表
+     */
+    @SuppressWarnings("unchecked")
+    static <R> List<R> spliceAll(Collection<?> objs, int threshold, Supplier<QueryBatchSplicer> factory,
+                                 BiFunction<QueryBatchSplicer, Object, R> operation) {
+        Object[] sources = objs.toArray();
+        Object[] results = new Object[sources.length];
+        if (sources.length >= threshold && ForkJoinPool.getCommonPoolParallelism() > 1) {
+            ForkJoinPool.commonPool().invoke(new SpliceTask(sources, results, 0, sources.length, factory, operation));
+        } else {
+            splice(sources, results, 0, sources.length, factory.get(), operation);
+        }
+        return Collections.unmodifiableList(Arrays.asList((R[]) results));
+    }
+
+    private static void splice(Object[] sources, Object[] results, int from, int to, QueryBatchSplicer splicer,
+                               BiFunction<QueryBatchSplicer, Object, ?> operation) {
+        for (int i = from; i < to; i++) {
+            results[i] = operation.apply(splicer, sources[i]);
+        }
+    }
+
+    /**
+     * 批量拼接的 fork-join 子任务，按下标范围二分拆分
+     */
+    private static final class SpliceTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] sources;
+
+        private final Object[] results;
+
+        private final int from;
+
+        private final int to;
+
+        private final Supplier<QueryBatchSplicer> factory;
+
+        private final BiFunction<QueryBatchSplicer, Object, ?> operation;
+
+        SpliceTask(Object[] sources, Object[] results, int from, int to, Supplier<QueryBatchSplicer> factory,
+                   BiFunction<QueryBatchSplicer, Object, ?> operation) {
+            this.sources = sources;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.factory = factory;
+            this.operation = operation;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                splice(sources, results, from, to, factory.get(), operation);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SpliceTask(sources, results, from, middle, factory, operation),
+                    new SpliceTask(sources, results, middle, to, factory, operation));
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package cn.zmdo.web.common.util;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 将查询参数编码后直接以 US-ASCII 字节写入 {@link ByteBuffer} 的写入器
+ * <p>
+ *     编码规则参见 {@link QueryWriter}，编码结果只包含 ASCII 字符，因此每个字符直接写为一个字节，
+ *     不会创建中间字符串或字节数组；整数直接按十进制写入。
+ * </p>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 缓冲区剩余空间不足时会抛出 {@link BufferOverflowException}
+ *     </font>
+ * </p>
+ */
+final class QueryByteWriter extends QueryWriter {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * @param buffer 写入的目标
+     * @param separator 第一个参数之前的分隔符，{@code '?'} 或 {@code '&'}
+     */
+    QueryByteWriter(ByteBuffer buffer, char separator) {
+        super(separator);
+        this.buffer = buffer;
+    }
+
+    @Override
+    void write(char ch) {
+        buffer.put((byte) ch);
+    }
+
+    @Override
+    void write(long value) {
+        if (value == Long.MIN_VALUE) {
+            super.write(value);
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        // 先计算位数，再从低位向高位填充
+        int digits = 1;
+        for (long v = value / 10; v != 0; v /= 10) {
+            digits ++;
+        }
+        int end = buffer.position() + digits;
+        if (end > buffer.limit()) {
+            throw new BufferOverflowException();
+        }
+        for (int i = end - 1; i >= end - digits; i --) {
+            buffer.put(i, (byte) ('0' + (value % 10)));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+}
@@ -0,0 +1,54 @@
+package cn.zmdo.web.common.util;
+
+/**
+ * 计算查询参数编码结果的哈希值的写入器
+ * <p>
+ *     使用 64 位的 FNV-1a 算法，结果与对编码后的字符串的 UTF-8 字节计算 FNV-1a 完全一致，
+ *     但是不需要构建字符串。
+ * </p>
+ */
+final class QueryHashWriter extends QueryWriter {
+
+    /** FNV-1a 64 位的初始值 */
+    static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /** FNV-1a 64 位的质数 */
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash;
+
+    /**
+     * @param hash 之前内容的哈希值，没有时使用 {@link #OFFSET_BASIS}
+     * @param separator 第一个参数之前的分隔符，{@code '?'} 或 {@code '&'}
+     */
+    QueryHashWriter(long hash, char separator) {
+        super(separator);
+        this.hash = hash;
+    }
+
+    /**
+     * 在已有的哈希值上继续计算字节序列的哈希值
+     * @param hash 已有的哈希值
+     * @param bytes 字节序列
+     * @return 新的哈希值
+     */
+    static long hash(long hash, byte[] bytes) {
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * PRIME;
+        }
+        return hash;
+    }
+
+    @Override
+    void write(char ch) {
+        hash = (hash ^ ch) * PRIME;
+    }
+
+    /**
+     * @return 当前的哈希值
+     */
+    long getHash() {
+        return hash;
+    }
+
+}
@@ -0,0 +1,151 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.annotation.QueryObject;
+import cn.zmdo.web.common.util.exception.QueryObjectException;
+import org.apache.commons.beanutils.PropertyUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 通过反射读取属性的查询对象拼接器
+ * <p>
+ *     没有生成的 {@link QuerySplicer} 时使用，每个类只会在第一次使用时通过内省解析一次可读属性，
+ *     并将 getter 转换为 {@link MethodHandle}，之后的拼接直接按计划读取属性，
+ *     不再创建属性表，也不会经过反射调用及 {@link java.lang.reflect.Array#get} 装箱。
+ *     {@code class} 属性不会作为参数输出。
+ * </p>
+ * <p>
+ *     拼接器是不可变的，可以被多个线程共享。
+ * </p>
+ * @see QuerySplicers#of(Class)
+ */
+final class QueryObjectAccessor implements QuerySplicer<Object> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /** 默认使用的API */
+    private final String defaultUri;
+
+    /** 默认API无法确定的原因，为 {@code null} 时表示 {@link #defaultUri} 可用 */
+    private final String defaultUriError;
+
+    /** 允许访问的API */
+    private final Set<String> allowedUris;
+
+    /** 是否缓存拼接结果 */
+    private final boolean cacheable;
+
+    /** 属性名 */
+    private final String[] names;
+
+    /** 属性对应的 getter，类型均为 {@code (Object)Object} */
+    private final MethodHandle[] getters;
+
+    QueryObjectAccessor(Class<?> type) {
+        QueryObject queryObject = type.getAnnotation(QueryObject.class);
+        if (queryObject != null) {
+            String[] uris = queryObject.value();
+            int defaultAPI = queryObject.defaultAPI();
+            if (defaultAPI >= 0 && defaultAPI < uris.length) {
+                this.defaultUri = uris[defaultAPI];
+                this.defaultUriError = null;
+            } else {
+                this.defaultUri = null;
+                this.defaultUriError = uris.length == 0
+                        ? String.format("'%s'的@QueryObject没有声明API", type.getName())
+                        : String.format("'%s'的@QueryObject默认API下标%d越界，只声明了%d个API",
+                                type.getName(), defaultAPI, uris.length);
+            }
+            this.allowedUris = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(uris)));
+            this.cacheable = QuerySplicers.isCacheable(type, queryObject.cacheable());
+        } else {
+            this.defaultUri = null;
+            this.defaultUriError = null;
+            this.allowedUris = Collections.emptySet();
+            this.cacheable = false;
+        }
+        List<String> names = new ArrayList<>();
+        List<MethodHandle> getters = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (PropertyDescriptor descriptor : PropertyUtils.getPropertyDescriptors(type)) {
+            Method readMethod = descriptor.getReadMethod();
+            if (readMethod == null || "class".equals(descriptor.getName())) {
+                continue;
+            }
+            try {
+                // 非 public 类中的 public getter 同样可以被 PropertyUtils 读取
+                readMethod.setAccessible(true);
+            } catch (RuntimeException ignored) {
+                // 所在模块未开放时只能访问 public 类的 getter
+            }
+            try {
+                getters.add(lookup.unreflect(readMethod).asType(GETTER_TYPE));
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new QueryObjectException(String.format("无法读取属性'%s'：%s",descriptor.getName(),e.getMessage()));
+            }
+            names.add(descriptor.getName());
+        }
+        this.names = names.toArray(new String[0]);
+        this.getters = getters.toArray(new MethodHandle[0]);
+    }
+
+    /**
+     * @return {@link QueryObject#defaultAPI() 默认使用的API}，没有被 {@link QueryObject} 标注时返回 {@code null}
+     * @throws QueryObjectException 如果标注了 {@link QueryObject} 但默认API越界或没有声明API，就会抛出此异常
+     */
+    @Override
+    public String getDefaultUri() {
+        if (defaultUriError != null) {
+            throw new QueryObjectException(defaultUriError);
+        }
+        return defaultUri;
+    }
+
+    @Override
+    public Set<String> getAllowedUris() {
+        return allowedUris;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return cacheable;
+    }
+
+    /**
+     * 读取属性值
+     * @param obj 查询对象
+     * @param index 属性的索引
+     * @return 属性值
+     * @throws QueryObjectException 如果 getter 抛出了异常，就会抛出此异常
+     */
+    Object get(Object obj, int index) {
+        try {
+            return (Object) getters[index].invokeExact(obj);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new QueryObjectException(e.getMessage());
+        }
+    }
+
+    /**
+     * @throws QueryObjectException 如果 getter 抛出了异常，就会抛出此异常
+     */
+    @Override
+    public void writeTo(Object obj, QueryParameterSink sink) {
+        for (int i = 0; i < getters.length; i ++) {
+            sink.addValue(names[i], get(obj, i));
+        }
+    }
+
+}
@@ -0,0 +1,408 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.util.exception.QueryObjectException;
+import org.apache.commons.beanutils.PropertyUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * 将查询字符串绑定到查询对象的绑定器，是 {@link QuerySplicer} 的逆操作
+ * <p>
+ *     每个类只会在第一次使用时解析一次可写属性，将构造方法及 setter 转换为 {@link MethodHandle}，
+ *     并按照属性的类型预先选择好转换函数，绑定时只需要对查询字符串进行一次扫描。
+ * </p>
+ * <p>
+ *     同名的参数会依次填充数组及 {@link Collection} 类型的属性，与拼接时的展开方式对应；
+ *     其他类型的属性使用最后一次出现的值。未知的参数会被忽略，非字符串类型的属性会忽略空值。
+ *     支持字符串、基本类型及其包装类、{@link BigDecimal}、{@link BigInteger}、枚举，以及它们的一维数组和集合，
+ *     其他类型（例如嵌套的对象）的属性不参与绑定。
+ * </p>
+ * @see UriSplicedUtils#bind(Class, CharSequence)
+ */
+final class QueryObjectBinder {
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final ClassValue<QueryObjectBinder> BINDERS = new ClassValue<QueryObjectBinder>() {
+        @Override
+        protected QueryObjectBinder computeValue(Class<?> type) {
+            return new QueryObjectBinder(type);
+        }
+    };
+
+    /** 无参构造方法，类型为 {@code ()Object} */
+    private final MethodHandle constructor;
+
+    /** 参数名到属性索引的映射 */
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    private final Property[] properties;
+
+    private QueryObjectBinder(Class<?> type) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            Constructor<?> declared = type.getDeclaredConstructor();
+            trySetAccessible(declared);
+            this.constructor = lookup.unreflectConstructor(declared).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new QueryObjectException(String.format("'%s'没有可访问的无参构造方法",type.getName()));
+        }
+        List<Property> properties = new ArrayList<>();
+        for (PropertyDescriptor descriptor : PropertyUtils.getPropertyDescriptors(type)) {
+            Method writeMethod = descriptor.getWriteMethod();
+            if (writeMethod == null) {
+                continue;
+            }
+            Type genericType = writeMethod.getGenericParameterTypes()[0];
+            Function<String, Object> converter = converter(elementType(genericType));
+            if (converter == null) {
+                // 不支持转换的类型（例如嵌套对象）不参与绑定
+                continue;
+            }
+            trySetAccessible(writeMethod);
+            MethodHandle setter;
+            try {
+                setter = lookup.unreflect(writeMethod).asType(SETTER_TYPE);
+            } catch (IllegalAccessException | RuntimeException e) {
+                throw new QueryObjectException(String.format("无法写入属性'%s'：%s",descriptor.getName(),e.getMessage()));
+            }
+            indexes.put(descriptor.getName(), properties.size());
+            properties.add(new Property(descriptor.getName(), setter, genericType, converter));
+        }
+        this.properties = properties.toArray(new Property[0]);
+    }
+
+    /**
+     * 获取类型的绑定器
+     * @param type 查询对象的类型
+     * @return 绑定器
+     * @throws QueryObjectException 如果类型没有无参构造方法或属性无法写入，就会抛出此异常
+     */
+    static QueryObjectBinder of(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * 将查询字符串绑定到一个新创建的对象
+     * @param query 查询字符串，例如 {@code "id=1&tag=a&tag=b"}，可以以 {@code '?'} 开头
+     * @return 绑定后的对象
+     * @throws QueryObjectException 如果参数无法转换为属性的类型，就会抛出此异常
+     */
+    Object bind(CharSequence query) {
+        Object obj = newInstance();
+        // 数组及集合属性先收集所有的值，最后一次性写入
+        List<Object>[] values = null;
+        StringBuilder buffer = new StringBuilder();
+        int length = query.length();
+        int start = length > 0 && query.charAt(0) == '?' ? 1 : 0;
+        while (start < length) {
+            int end = start;
+            int equals = -1;
+            while (end < length && query.charAt(end) != '&') {
+                if (equals < 0 && query.charAt(end) == '=') {
+                    equals = end;
+                }
+                end ++;
+            }
+            if (end > start) {
+                String name = decode(query, start, equals < 0 ? end : equals, buffer);
+                Integer index = indexes.get(name);
+                if (index != null) {
+                    Property property = properties[index];
+                    String value = equals < 0 ? "" : decode(query, equals + 1, end, buffer);
+                    Object converted = property.convert(value);
+                    if (converted != null) {
+                        if (property.multiple) {
+                            if (values == null) {
+                                values = newValues(properties.length);
+                            }
+                            if (values[index] == null) {
+                                values[index] = new ArrayList<>();
+                            }
+                            values[index].add(converted);
+                        } else {
+                            set(property, obj, converted);
+                        }
+                    }
+                }
+            }
+            start = end + 1;
+        }
+        if (values != null) {
+            for (int i = 0; i < values.length; i ++) {
+                if (values[i] != null) {
+                    set(properties[i], obj, properties[i].collect(values[i]));
+                }
+            }
+        }
+        return obj;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object>[] newValues(int size) {
+        return (List<Object>[]) new List<?>[size];
+    }
+
+    /**
+     * 百分号解码，{@code '+'} 被解码为空格，非法的编码按原样保留
+     */
+    private static String decode(CharSequence query, int start, int end, StringBuilder buffer) {
+        boolean plain = true;
+        for (int i = start; i < end; i ++) {
+            char ch = query.charAt(i);
+            if (ch == '%' || ch == '+') {
+                plain = false;
+                break;
+            }
+        }
+        if (plain) {
+            return query.subSequence(start, end).toString();
+        }
+        buffer.setLength(0);
+        byte[] bytes = null;
+        int i = start;
+        while (i < end) {
+            char ch = query.charAt(i);
+            if (ch == '+') {
+                buffer.append(' ');
+                i ++;
+            } else if (ch == '%' && i + 2 < end && hex(query, i + 1) >= 0) {
+                // 连续的编码字节一起按 UTF-8 解码
+                int count = 0;
+                if (bytes == null) {
+                    bytes = new byte[(end - i) / 3 + 1];
+                }
+                while (i + 2 < end && query.charAt(i) == '%' && hex(query, i + 1) >= 0) {
+                    bytes[count ++] = (byte) hex(query, i + 1);
+                    i += 3;
+                }
+                buffer.append(new String(bytes, 0, count, StandardCharsets.UTF_8));
+            } else {
+                buffer.append(ch);
+                i ++;
+            }
+        }
+        return buffer.toString();
+    }
+
+    private static int hex(CharSequence query, int index) {
+        int high = Character.digit(query.charAt(index), 16);
+        int low = Character.digit(query.charAt(index + 1), 16);
+        return high < 0 || low < 0 ? -1 : (high << 4) | low;
+    }
+
+    private Object newInstance() {
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new QueryObjectException(e.getMessage());
+        }
+    }
+
+    private static void set(Property property, Object obj, Object value) {
+        try {
+            property.setter.invokeExact(obj, value);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new QueryObjectException(e.getMessage());
+        }
+    }
+
+    private static void trySetAccessible(AccessibleObject object) {
+        try {
+            object.setAccessible(true);
+        } catch (RuntimeException ignored) {
+            // 所在模块未开放时只能访问 public 的成员
+        }
+    }
+
+    /**
+     * 单个值（数组及集合为元素）的类型
+     */
+    private static Class<?> elementType(Type genericType) {
+        Class<?> type = rawType(genericType);
+        if (type.isArray()) {
+            return type.getComponentType();
+        } else if (Collection.class.isAssignableFrom(type)) {
+            return genericType instanceof ParameterizedType
+                    ? rawType(((ParameterizedType) genericType).getActualTypeArguments()[0]) : String.class;
+        }
+        return type;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        if (type instanceof TypeVariable) {
+            return rawType(((TypeVariable<?>) type).getBounds()[0]);
+        }
+        if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        // 泛型数组不参与绑定
+        return Void.class;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, Object> converter(Class<?> type) {
+        if (type == String.class || type == Object.class || type == CharSequence.class) {
+            return value -> value;
+        } else if (type == int.class || type == Integer.class) {
+            return Integer::valueOf;
+        } else if (type == long.class || type == Long.class) {
+            return Long::valueOf;
+        } else if (type == double.class || type == Double.class) {
+            return Double::valueOf;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return QueryObjectBinder::parseBoolean;
+        } else if (type == float.class || type == Float.class) {
+            return Float::valueOf;
+        } else if (type == short.class || type == Short.class) {
+            return Short::valueOf;
+        } else if (type == byte.class || type == Byte.class) {
+            return Byte::valueOf;
+        } else if (type == char.class || type == Character.class) {
+            return QueryObjectBinder::parseChar;
+        } else if (type == BigDecimal.class) {
+            return BigDecimal::new;
+        } else if (type == BigInteger.class) {
+            return BigInteger::new;
+        } else if (type.isEnum()) {
+            Class<? extends Enum> enumType = (Class<? extends Enum>) type;
+            return value -> Enum.valueOf(enumType, value);
+        }
+        return null;
+    }
+
+    private static Object parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return Boolean.TRUE;
+        } else if ("false".equalsIgnoreCase(value)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException(value);
+    }
+
+    private static Object parseChar(String value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException(value);
+        }
+        return value.charAt(0);
+    }
+
+    /**
+     * 可写属性
+     */
+    private static final class Property {
+
+        private final String name;
+
+        /** setter，类型为 {@code (Object,Object)void} */
+        private final MethodHandle setter;
+
+        /** 属性的类型 */
+        private final Class<?> type;
+
+        /** 是否为数组或集合 */
+        private final boolean multiple;
+
+        /** 单个值（数组及集合为元素）的转换函数 */
+        private final Function<String, Object> converter;
+
+        /** 元素的类型 */
+        private final Class<?> elementType;
+
+        Property(String name, MethodHandle setter, Type genericType, Function<String, Object> converter) {
+            this.name = name;
+            this.setter = setter;
+            this.type = rawType(genericType);
+            this.elementType = elementType(genericType);
+            this.multiple = type.isArray() || Collection.class.isAssignableFrom(type);
+            this.converter = converter;
+        }
+
+        /**
+         * 转换单个值
+         * @return 转换后的值，空值返回 {@code null}
+         */
+        Object convert(String value) {
+            if (value.isEmpty() && elementType != String.class) {
+                return null;
+            }
+            try {
+                return converter.apply(value);
+            } catch (RuntimeException e) {
+                throw new QueryObjectException(String.format("参数'%s'的值'%s'无法转换为'%s'",
+                        name, value, elementType.getSimpleName()));
+            }
+        }
+
+        /**
+         * 将收集到的所有值转换为属性的类型
+         */
+        @SuppressWarnings("unchecked")
+        Object collect(List<Object> values) {
+            if (type.isArray()) {
+                Object array = Array.newInstance(elementType, values.size());
+                if (elementType.isPrimitive()) {
+                    for (int i = 0; i < values.size(); i ++) {
+                        Array.set(array, i, values.get(i));
+                    }
+                } else {
+                    values.toArray((Object[]) array);
+                }
+                return array;
+            }
+            Collection<Object> collection;
+            if (!type.isInterface() && !Modifier.isAbstract(type.getModifiers())) {
+                try {
+                    collection = (Collection<Object>) type.getConstructor().newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new QueryObjectException(String.format("无法创建属性'%s'的集合：%s",name,e.getMessage()));
+                }
+            } else if (SortedSet.class.isAssignableFrom(type)) {
+                collection = new TreeSet<>();
+            } else if (Set.class.isAssignableFrom(type)) {
+                collection = new LinkedHashSet<>();
+            } else {
+                collection = new ArrayList<>(values.size());
+            }
+            collection.addAll(values);
+            return collection;
+        }
+
+    }
+
+}
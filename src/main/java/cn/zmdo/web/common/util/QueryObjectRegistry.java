@@ -0,0 +1,180 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.annotation.QueryObject;
+import cn.zmdo.web.common.util.exception.QueryObjectException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import javax.validation.constraints.NotNull;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查询对象注册表
+ * <p>
+ *     每个被 {@link QueryObject} 注解标注的类在第一次拼接时会自动解析出允许访问的API（哈希集合）、
+ *     默认API以及读取属性的计划，之后的检查只需要一次集合查找。
+ *     启动时可以通过 {@link #scan(String...)} 扫描指定的包提前登记，
+ *     错误的声明（API为空、重复、无法解析或默认API越界）会在启动时一并报告，而不是等到第一次调用时才发现。
+ * </p>
+ * @see UriSplicedUtils#checkAndSplice(String, Object)
+ */
+@Slf4j
+public final class QueryObjectRegistry {
+
+    /** 已经检查并登记的类 */
+    private static final Set<Class<?>> REGISTERED = ConcurrentHashMap.newKeySet();
+
+    private QueryObjectRegistry() {
+    }
+
+    /**
+     * 扫描包及其子包中被 {@link QueryObject} 注解标注的类并登记
+     * @param basePackages 需要扫描的包
+     * @return 本次扫描到的类
+     * @throws QueryObjectException 如果存在错误的声明，就会抛出此异常，异常信息包括全部错误
+     */
+    public static Set<Class<?>> scan(@NotNull String... basePackages) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                // 查询对象可以是嵌套类，也不需要是具体类，类本身的合法性由 check 检查
+                return true;
+            }
+        };
+        scanner.addIncludeFilter(new AnnotationTypeFilter(QueryObject.class, false));
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        Set<Class<?>> types = new LinkedHashSet<>();
+        List<String> errors = new ArrayList<>();
+        for (String basePackage : basePackages) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                try {
+                    types.add(ClassUtils.forName(candidate.getBeanClassName(), classLoader));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    errors.add(String.format("无法加载查询对象'%s'：%s", candidate.getBeanClassName(), e));
+                }
+            }
+        }
+        for (Class<?> type : types) {
+            errors.addAll(check(type));
+        }
+        report(errors);
+        for (Class<?> type : types) {
+            register(type);
+        }
+        log.debug("已登记{}个查询对象：{}", types.size(), types);
+        return Collections.unmodifiableSet(types);
+    }
+
+    /**
+     * 检查并登记查询对象，提前解析属性读取计划
+     * @param type 被 {@link QueryObject} 注解标注的类
+     * @throws QueryObjectException 如果声明错误或属性无法读取，就会抛出此异常
+     */
+    public static void register(@NotNull Class<?> type) {
+        if (REGISTERED.contains(type)) {
+            return;
+        }
+        report(check(type));
+        QuerySplicers.of(type);
+        REGISTERED.add(type);
+    }
+
+    /**
+     * @param type 查询对象的类型
+     * @return 类是否已经登记
+     */
+    public static boolean isRegistered(@NotNull Class<?> type) {
+        return REGISTERED.contains(type);
+    }
+
+    /**
+     * 检查API是否允许被查询对象访问，只需要一次哈希集合查找，没有登记的类会在第一次检查时解析
+     * @param type 查询对象的类型
+     * @param uri 需要访问的URI字符串
+     * @return 是否允许访问
+     */
+    public static boolean isAllowed(@NotNull Class<?> type, String uri) {
+        return QuerySplicers.of(type).getAllowedUris().contains(uri);
+    }
+
+    /**
+     * 获取查询对象的默认API
+     * @param type 查询对象的类型
+     * @return 默认API，没有被 {@link QueryObject} 注解标注则为 {@code null}
+     */
+    public static String getDefaultUri(@NotNull Class<?> type) {
+        return QuerySplicers.of(type).getDefaultUri();
+    }
+
+    /**
+     * @return 已经登记的类
+     */
+    public static Set<Class<?>> getRegisteredClasses() {
+        return Collections.unmodifiableSet(REGISTERED);
+    }
+
+    /**
+     * 检查查询对象的声明
+     * @param type 查询对象的类型
+     * @return 错误信息，没有错误则为空列表
+     */
+    private static List<String> check(Class<?> type) {
+        List<String> errors = new ArrayList<>();
+        QueryObject queryObject = type.getAnnotation(QueryObject.class);
+        if (queryObject == null) {
+            errors.add(String.format("'%s'没有被@QueryObject标注", type.getName()));
+            return errors;
+        }
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            errors.add(String.format("'%s'是接口或抽象类，@QueryObject需要标注在具体类上", type.getName()));
+        }
+        String[] uris = queryObject.value();
+        if (uris.length == 0) {
+            errors.add(String.format("'%s'的@QueryObject没有声明API", type.getName()));
+        }
+        Set<String> seen = new HashSet<>();
+        for (String uri : uris) {
+            if (uri == null || uri.trim().isEmpty()) {
+                errors.add(String.format("'%s'的@QueryObject声明了空的API", type.getName()));
+                continue;
+            }
+            if (!seen.add(uri)) {
+                errors.add(String.format("'%s'的@QueryObject重复声明了API'%s'", type.getName(), uri));
+                continue;
+            }
+            try {
+                QueryUriBase.parse(uri);
+            } catch (RuntimeException e) {
+                errors.add(String.format("'%s'的@QueryObject声明的API'%s'无法解析：%s", type.getName(), uri, e.getMessage()));
+            }
+        }
+        int defaultAPI = queryObject.defaultAPI();
+        if (uris.length > 0 && (defaultAPI < 0 || defaultAPI >= uris.length)) {
+            errors.add(String.format("'%s'的@QueryObject默认API下标%d越界，只声明了%d个API",
+                    type.getName(), defaultAPI, uris.length));
+        }
+        return errors;
+    }
+
+    private static void report(List<String> errors) {
+        if (errors.isEmpty()) {
+            return;
+        }
+        for (String error : errors) {
+            log.error(error);
+        }
+        throw new QueryObjectException(String.format("存在%d个错误的查询对象声明：%s", errors.size(), String.join("；", errors)));
+    }
+
+}
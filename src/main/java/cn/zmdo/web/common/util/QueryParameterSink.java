@@ -0,0 +1,137 @@
+package cn.zmdo.web.common.util;
+
+import java.util.Collection;
+
+/**
+ * 查询参数的接收者
+ * <p>
+ *     {@link QuerySplicer} 读取查询对象的属性后，会将每个参数依次写入接收者，
+ *     接收者可以将参数收集到集合中，也可以直接写入查询字符串。
+ * </p>
+ * @see QuerySplicer#writeTo(Object, QueryParameterSink)
+ */
+public interface QueryParameterSink {
+
+    /**
+     * 写入一个参数
+     * @param name 参数名
+     * @param value 参数值
+     */
+    void add(String name, String value);
+
+    /**
+     * 写入一个整数参数，实现可以直接写入数字以避免创建字符串
+     * @param name 参数名
+     * @param value 参数值
+     */
+    default void add(String name, long value) {
+        add(name, Long.toString(value));
+    }
+
+    /**
+     * 写入一个小数参数，输出与 {@link Double#toString(double)} 一致
+     * @param name 参数名
+     * @param value 参数值
+     */
+    default void add(String name, double value) {
+        add(name, Double.toString(value));
+    }
+
+    /**
+     * 写入一个单精度小数参数，输出与 {@link Float#toString(float)} 一致
+     * @param name 参数名
+     * @param value 参数值
+     */
+    default void add(String name, float value) {
+        add(name, Float.toString(value));
+    }
+
+    /**
+     * 写入一个布尔参数
+     * @param name 参数名
+     * @param value 参数值
+     */
+    default void add(String name, boolean value) {
+        add(name, Boolean.toString(value));
+    }
+
+    /**
+     * 写入一个属性值
+     * <p>
+     *     值为 {@code null} 时会被忽略，{@link Collection} 及一维数组会被展开为多个同名参数，
+     *     基本类型的数组不会被装箱
+     * </p>
+     * @param name 参数名
+     * @param value 属性值
+     */
+    @SuppressWarnings("rawtypes")
+    default void addValue(String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Collection) {
+            for (Object item : (Collection) value) {
+                add(name, item.toString());
+            }
+        } else if (value instanceof Object[]) {
+            for (Object item : (Object[]) value) {
+                add(name, String.valueOf(item));
+            }
+        } else if (value.getClass().isArray()) {
+            addPrimitiveArray(name, value);
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            add(name, ((Number) value).longValue());
+        } else if (value instanceof Double) {
+            add(name, ((Double) value).doubleValue());
+        } else if (value instanceof Float) {
+            add(name, ((Float) value).floatValue());
+        } else if (value instanceof Boolean) {
+            add(name, ((Boolean) value).booleanValue());
+        } else {
+            add(name, value.toString());
+        }
+    }
+
+    /**
+     * 写入基本类型数组的所有元素
+     * @param name 参数名
+     * @param array 基本类型的数组
+     */
+    default void addPrimitiveArray(String name, Object array) {
+        if (array instanceof int[]) {
+            for (int item : (int[]) array) {
+                add(name, item);
+            }
+        } else if (array instanceof long[]) {
+            for (long item : (long[]) array) {
+                add(name, item);
+            }
+        } else if (array instanceof double[]) {
+            for (double item : (double[]) array) {
+                add(name, item);
+            }
+        } else if (array instanceof boolean[]) {
+            for (boolean item : (boolean[]) array) {
+                add(name, item);
+            }
+        } else if (array instanceof char[]) {
+            for (char item : (char[]) array) {
+                add(name, String.valueOf(item));
+            }
+        } else if (array instanceof byte[]) {
+            for (byte item : (byte[]) array) {
+                add(name, (long) item);
+            }
+        } else if (array instanceof short[]) {
+            for (short item : (short[]) array) {
+                add(name, (long) item);
+            }
+        } else {
+            for (float item : (float[]) array) {
+                add(name, item);
+            }
+        }
+    }
+
+}
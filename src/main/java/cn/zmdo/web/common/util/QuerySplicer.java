@@ -0,0 +1,52 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.annotation.QueryObject;
+
+import java.util.Set;
+
+/**
+ * 查询对象的拼接器
+ * <p>
+ *     负责将某个类型的查询对象的属性写入 {@link QueryParameterSink}，并提供 {@link QueryObject} 中声明的API信息。
+ *     编译时注解处理器 {@link cn.zmdo.web.common.processor.QueryObjectProcessor} 会为每个被 {@link QueryObject}
+ *     标注的类生成一个直接调用 getter 的拼接器（类名为 {@code 类名_QuerySplicer}），
+ *     {@link UriSplicedUtils} 会优先使用生成的拼接器，没有时再通过反射读取属性。
+ * </p>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 拼接器必须是无状态且线程安全的，并且提供一个 public 的无参构造方法
+ *     </font>
+ * </p>
+ * @param <T> 查询对象的类型
+ * @see UriSplicedUtils
+ */
+public interface QuerySplicer<T> {
+
+    /**
+     * @return {@link QueryObject#defaultAPI() 默认使用的API}，没有被 {@link QueryObject} 标注时返回 {@code null}
+     */
+    String getDefaultUri();
+
+    /**
+     * @return {@link QueryObject#value() 允许访问的所有API}，没有被 {@link QueryObject} 标注时返回空集合
+     */
+    Set<String> getAllowedUris();
+
+    /**
+     * @return {@link QueryObject#cacheable() 是否缓存拼接结果}
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+
+    /**
+     * 将查询对象的所有参数写入接收者
+     * <p>
+     *     值为 {@code null} 的属性会被忽略，{@link java.util.Collection} 及一维数组会被展开为多个同名参数
+     * </p>
+     * @param obj 查询对象
+     * @param sink 参数的接收者
+     */
+    void writeTo(T obj, QueryParameterSink sink);
+
+}
@@ -0,0 +1,120 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.util.exception.QueryObjectException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 查询对象拼接器的查找
+ * <p>
+ *     每个类只查找一次：如果存在编译时生成的 {@code 类名_QuerySplicer} 则使用它，
+ *     否则使用 {@link QueryObjectAccessor} 通过反射读取属性。查找结果保存在 {@link ClassValue} 中，
+ *     不会阻止类被卸载。
+ * </p>
+ * <p>
+ *     开启了 {@link cn.zmdo.web.common.annotation.QueryObject#cacheable() 缓存}但没有重写 equals 及 hashCode 的类型
+ *     只能按对象的引用缓存，这样的缓存既不会命中又会占满缓存，因此会忽略缓存设置。
+ * </p>
+ * @see QuerySplicer
+ */
+@Slf4j
+final class QuerySplicers {
+
+    /** 生成的拼接器的类名后缀 */
+    static final String SUFFIX = "_QuerySplicer";
+
+    private static final ClassValue<QuerySplicer<?>> SPLICERS = new ClassValue<QuerySplicer<?>>() {
+        @Override
+        protected QuerySplicer<?> computeValue(Class<?> type) {
+            QuerySplicer<?> generated = loadGenerated(type);
+            // 生成的拼接器开启了缓存却没有重写 equals 时，改用反射的拼接器以忽略缓存设置
+            if (generated != null && (!generated.isCacheable() || overridesEquals(type))) {
+                return generated;
+            }
+            return new QueryObjectAccessor(type);
+        }
+    };
+
+    private QuerySplicers() {
+    }
+
+    /**
+     * 获取类型的拼接器
+     * @param type 查询对象的类型
+     * @param <T> 查询对象的类型
+     * @return 拼接器
+     * @throws QueryObjectException 如果类型的属性无法读取，就会抛出此异常
+     */
+    @SuppressWarnings("unchecked")
+    static <T> QuerySplicer<T> of(Class<T> type) {
+        return (QuerySplicer<T>) SPLICERS.get(type);
+    }
+
+    /**
+     * 获取对象所属类型的拼接器
+     * @param obj 查询对象
+     * @return 拼接器
+     * @throws QueryObjectException 如果类型的属性无法读取，就会抛出此异常
+     */
+    @SuppressWarnings("unchecked")
+    static QuerySplicer<Object> forObject(Object obj) {
+        return (QuerySplicer<Object>) SPLICERS.get(obj.getClass());
+    }
+
+    /**
+     * 获取生成的拼接器的类名，嵌套类的 {@code '$'} 会被替换为 {@code '_'}
+     * <p>
+     *     例如 {@code com.example.Outer$Query} 对应 {@code com.example.Outer_Query_QuerySplicer}
+     * </p>
+     * @param type 查询对象的类型
+     * @return 生成的拼接器的完整类名
+     */
+    static String generatedName(Class<?> type) {
+        String name = type.getName();
+        int packageEnd = name.lastIndexOf('.') + 1;
+        return name.substring(0, packageEnd) + name.substring(packageEnd).replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * 判断类型能否缓存拼接结果
+     * @param type 查询对象的类型
+     * @param cacheable 注解中是否开启了缓存
+     * @return 开启了缓存并且重写了 equals 及 hashCode 时返回 {@code true}
+     */
+    static boolean isCacheable(Class<?> type, boolean cacheable) {
+        if (cacheable && !overridesEquals(type)) {
+            log.warn("查询对象'{}'没有重写equals及hashCode，忽略cacheable设置", type.getName());
+            return false;
+        }
+        return cacheable;
+    }
+
+    /**
+     * 判断类型（或其父类）是否重写了 equals 及 hashCode
+     */
+    private static boolean overridesEquals(Class<?> type) {
+        try {
+            return type.getMethod("equals", Object.class).getDeclaringClass() != Object.class
+                    && type.getMethod("hashCode").getDeclaringClass() != Object.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static QuerySplicer<?> loadGenerated(Class<?> type) {
+        Class<?> splicerClass;
+        try {
+            splicerClass = Class.forName(generatedName(type), true, type.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        if (!QuerySplicer.class.isAssignableFrom(splicerClass)) {
+            return null;
+        }
+        try {
+            return (QuerySplicer<?>) splicerClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new QueryObjectException(String.format("无法创建拼接器'%s'：%s",splicerClass.getName(),e.getMessage()));
+        }
+    }
+
+}
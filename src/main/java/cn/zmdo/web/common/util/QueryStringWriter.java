@@ -0,0 +1,49 @@
+package cn.zmdo.web.common.util;
+
+/**
+ * 将查询参数编码后直接写入 {@link StringBuilder} 的写入器
+ * <p>
+ *     编码规则参见 {@link QueryWriter}，连续的安全字符、整数及小数直接追加到 {@link StringBuilder}。
+ * </p>
+ */
+final class QueryStringWriter extends QueryWriter {
+
+    private final StringBuilder builder;
+
+    /**
+     * @param builder 写入的目标
+     * @param separator 第一个参数之前的分隔符，{@code '?'} 或 {@code '&'}
+     */
+    QueryStringWriter(StringBuilder builder, char separator) {
+        super(separator);
+        this.builder = builder;
+    }
+
+    @Override
+    void write(char ch) {
+        builder.append(ch);
+    }
+
+    @Override
+    void write(CharSequence chars, int start, int end) {
+        builder.append(chars, start, end);
+    }
+
+    @Override
+    void write(long value) {
+        builder.append(value);
+    }
+
+    @Override
+    void write(double value) {
+        builder.append(value);
+    }
+
+    /**
+     * @return 写入的目标
+     */
+    StringBuilder getBuilder() {
+        return builder;
+    }
+
+}
@@ -0,0 +1,153 @@
+package cn.zmdo.web.common.util;
+
+import cn.zmdo.web.common.util.exception.QueryObjectException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 预先解析的基础URI
+ * <p>
+ *     基础URI只解析一次，拆分为查询参数之前的部分、原有的查询参数以及片段三部分，
+ *     拼接时直接在其后追加编码后的查询参数，不再经过 {@link UriComponentsBuilder}。
+ *     基础URI的编码方式与 {@code UriComponentsBuilder.fromUriString(uri).build().toUri()} 保持一致。
+ * </p>
+ * <p>
+ *     同时预先计算好请求目标（路径及原有的查询参数）的 US-ASCII 字节，用于直接写入 {@link ByteBuffer}。
+ * </p>
+ * <p>
+ *     对象是不可变的，可以被缓存并在多个线程中共享。
+ * </p>
+ * @see UriSplicedUtils#getUriCacheStatistics()
+ */
+final class QueryUriBase {
+
+    /** 查询参数之前的部分 */
+    private final String head;
+
+    /** 原有的查询参数，没有则为 {@code null} */
+    private final String query;
+
+    /** 片段（包括 {@code '#'}），没有则为空字符串 */
+    private final String fragment;
+
+    /** 请求目标（路径及原有的查询参数）的 US-ASCII 字节，不透明的URI为 {@code null} */
+    private final byte[] target;
+
+    /** 请求目标是否已经包含查询参数 */
+    private final boolean targetHasQuery;
+
+    /** 查询参数之前的部分及原有的查询参数的 FNV-1a 哈希值 */
+    private final long prefixHash;
+
+    /** 片段的 UTF-8 字节 */
+    private final byte[] fragmentBytes;
+
+    private QueryUriBase(String head, String query, String fragment, byte[] target, boolean targetHasQuery) {
+        this.head = head;
+        this.query = query;
+        this.fragment = fragment;
+        this.target = target;
+        this.targetHasQuery = targetHasQuery;
+        String prefix = query == null ? head : head + '?' + query;
+        this.prefixHash = QueryHashWriter.hash(QueryHashWriter.OFFSET_BASIS, prefix.getBytes(StandardCharsets.UTF_8));
+        this.fragmentBytes = fragment.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 解析基础URI
+     * @param uri URI字符串
+     * @return 解析结果
+     * @throws IllegalArgumentException 如果URI字符串无法解析，就会抛出此异常
+     */
+    static QueryUriBase parse(String uri) {
+        URI parsed = UriComponentsBuilder.fromUriString(uri).build().toUri();
+        String head = parsed.toString();
+        String fragment = "";
+        if (parsed.getRawFragment() != null) {
+            fragment = "#" + parsed.getRawFragment();
+            head = head.substring(0, head.length() - fragment.length());
+        }
+        String query = parsed.getRawQuery();
+        if (query != null) {
+            head = head.substring(0, head.length() - query.length() - 1);
+            if (query.isEmpty()) {
+                query = null;
+            }
+        }
+        byte[] target = null;
+        boolean targetHasQuery = false;
+        URI ascii = URI.create(parsed.toASCIIString());
+        if (!ascii.isOpaque()) {
+            String path = ascii.getRawPath() == null || ascii.getRawPath().isEmpty() ? "/" : ascii.getRawPath();
+            String targetQuery = ascii.getRawQuery();
+            targetHasQuery = targetQuery != null && !targetQuery.isEmpty();
+            target = (targetHasQuery ? path + "?" + targetQuery : path).getBytes(StandardCharsets.US_ASCII);
+        }
+        return new QueryUriBase(head, query, fragment, target, targetHasQuery);
+    }
+
+    /**
+     * 写入基础URI，并创建一个写入查询参数的写入器
+     * @param builder 写入的目标
+     * @return 查询参数写入器
+     */
+    QueryStringWriter start(StringBuilder builder) {
+        builder.append(head);
+        if (query != null) {
+            builder.append('?').append(query);
+        }
+        return new QueryStringWriter(builder, query == null ? '?' : '&');
+    }
+
+    /**
+     * 写入请求目标（路径及原有的查询参数），并创建一个写入查询参数的写入器
+     * @param buffer 写入的目标
+     * @return 查询参数写入器
+     * @throws QueryObjectException 如果是不透明的URI（例如 {@code mailto:}），没有请求目标，就会抛出此异常
+     * @throws java.nio.BufferOverflowException 如果缓冲区剩余空间不足，就会抛出此异常
+     */
+    QueryByteWriter startTarget(ByteBuffer buffer) {
+        if (target == null) {
+            throw new QueryObjectException("不透明的URI没有请求目标");
+        }
+        buffer.put(target);
+        return new QueryByteWriter(buffer, targetHasQuery ? '&' : '?');
+    }
+
+    /**
+     * 创建一个计算拼接结果哈希值的写入器，基础URI部分的哈希值已经预先计算好
+     * @return 计算哈希值的写入器
+     */
+    QueryHashWriter startHash() {
+        return new QueryHashWriter(prefixHash, query == null ? '?' : '&');
+    }
+
+    /**
+     * 结束哈希值的计算
+     * @param writer 由 {@link #startHash()} 创建的写入器
+     * @return 拼接结果（包括片段）的 FNV-1a 哈希值
+     */
+    long finish(QueryHashWriter writer) {
+        return QueryHashWriter.hash(writer.getHash(), fragmentBytes);
+    }
+
+    /**
+     * @return 拼接结果长度的估计值，用于预先分配缓冲区
+     */
+    int estimatedLength() {
+        return head.length() + (query == null ? 0 : query.length() + 1) + fragment.length() + 64;
+    }
+
+    /**
+     * 结束拼接
+     * @param writer 由 {@link #start(StringBuilder)} 创建的写入器
+     * @return 写入的目标
+     */
+    StringBuilder finish(QueryStringWriter writer) {
+        return writer.getBuilder().append(fragment);
+    }
+
+}
@@ -0,0 +1,186 @@
+package cn.zmdo.web.common.util;
+
+/**
+ * 将查询参数编码后写出的接收者
+ * <p>
+ *     参数名及参数值按 UTF-8 进行百分号编码，除字母、数字及 {@code -._~!$'()*,;:@/?} 以外的字符都会被编码，
+ *     其中 {@code '&'} {@code '='} {@code '+'} 也会被编码，保证服务端能够还原出原始的参数。
+ *     编码结果只包含 ASCII 字符，子类只需要决定如何写出这些字符。
+ * </p>
+ * <p>
+ *     是否需要编码通过预先计算的位图判断，连续的安全字符会被整段写出，非 ASCII 字符直接按码点计算 UTF-8 字节，
+ *     不会创建字节数组；整数、小数及布尔值直接写出，不会先转换为字符串。
+ * </p>
+ * <p>
+ *     <font style="color:red;">
+ *     <b>注意：</b> 写入器不是线程安全的
+ *     </font>
+ * </p>
+ */
+abstract class QueryWriter implements QueryParameterSink {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /** 不需要编码的字符，{@code 0x00} 至 {@code 0x3F} */
+    private static final long SAFE_LOW;
+
+    /** 不需要编码的字符，{@code 0x40} 至 {@code 0x7F} */
+    private static final long SAFE_HIGH;
+
+    static {
+        long low = 0;
+        long high = 0;
+        String safe = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-._~!$'()*,;:@/?";
+        for (int i = 0; i < safe.length(); i ++) {
+            char ch = safe.charAt(i);
+            if (ch < 64) {
+                low |= 1L << ch;
+            } else {
+                high |= 1L << (ch - 64);
+            }
+        }
+        SAFE_LOW = low;
+        SAFE_HIGH = high;
+    }
+
+    /** 下一个参数之前的分隔符 */
+    private char separator;
+
+    /**
+     * @param separator 第一个参数之前的分隔符，{@code '?'} 或 {@code '&'}
+     */
+    QueryWriter(char separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * 判断字符是否不需要编码
+     * @param ch 字符
+     * @return 不需要编码时返回 {@code true}
+     */
+    static boolean isSafe(char ch) {
+        if (ch < 64) {
+            return (SAFE_LOW & (1L << ch)) != 0;
+        }
+        return ch < 128 && (SAFE_HIGH & (1L << (ch - 64))) != 0;
+    }
+
+    /**
+     * 写出一个 ASCII 字符
+     * @param ch 字符
+     */
+    abstract void write(char ch);
+
+    /**
+     * 写出一段 ASCII 字符
+     * @param chars 字符序列
+     * @param start 起始位置
+     * @param end 结束位置
+     */
+    void write(CharSequence chars, int start, int end) {
+        for (int i = start; i < end; i ++) {
+            write(chars.charAt(i));
+        }
+    }
+
+    /**
+     * 写出一个整数
+     * @param value 整数
+     */
+    void write(long value) {
+        String text = Long.toString(value);
+        write(text, 0, text.length());
+    }
+
+    /**
+     * 写出一个小数，输出与 {@link Double#toString(double)} 一致，只包含 ASCII 字符
+     * @param value 小数
+     */
+    void write(double value) {
+        String text = Double.toString(value);
+        write(text, 0, text.length());
+    }
+
+    /**
+     * 写入一个参数，参数值为 {@code null} 时只写入参数名
+     * @param name 参数名
+     * @param value 参数值
+     */
+    @Override
+    public void add(String name, String value) {
+        writeName(name);
+        if (value != null) {
+            write('=');
+            encode(value);
+        }
+    }
+
+    @Override
+    public void add(String name, long value) {
+        writeName(name);
+        write('=');
+        write(value);
+    }
+
+    @Override
+    public void add(String name, double value) {
+        writeName(name);
+        write('=');
+        write(value);
+    }
+
+    @Override
+    public void add(String name, boolean value) {
+        writeName(name);
+        write('=');
+        write(value ? "true" : "false", 0, value ? 4 : 5);
+    }
+
+    private void writeName(String name) {
+        write(separator);
+        separator = '&';
+        encode(name);
+    }
+
+    private void encode(CharSequence value) {
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i ++) {
+            char ch = value.charAt(i);
+            if (isSafe(ch)) {
+                continue;
+            }
+            // 整段写出之前连续的安全字符
+            write(value, start, i);
+            if (ch < 0x80) {
+                writeEncoded(ch);
+            } else if (ch < 0x800) {
+                writeEncoded(0xC0 | (ch >> 6));
+                writeEncoded(0x80 | (ch & 0x3F));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(ch, value.charAt(++ i));
+                writeEncoded(0xF0 | (codePoint >> 18));
+                writeEncoded(0x80 | ((codePoint >> 12) & 0x3F));
+                writeEncoded(0x80 | ((codePoint >> 6) & 0x3F));
+                writeEncoded(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(ch)) {
+                // 与 String#getBytes 一致，不成对的代理字符被替换为 '?'
+                write('?');
+            } else {
+                writeEncoded(0xE0 | (ch >> 12));
+                writeEncoded(0x80 | ((ch >> 6) & 0x3F));
+                writeEncoded(0x80 | (ch & 0x3F));
+            }
+            start = i + 1;
+        }
+        write(value, start, length);
+    }
+
+    private void writeEncoded(int b) {
+        write('%');
+        write(HEX[(b >> 4) & 0x0F]);
+        write(HEX[b & 0x0F]);
+    }
+
+}
@@ -0,0 +1,58 @@
+package cn.zmdo.web.common.util;
+
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于正则表达式的格式匹配器
+ * <p>
+ *     格式字符串在创建时被转换为正则表达式并预编译为 {@link Pattern}，
+ *     {@link Pattern} 本身是线程安全的，因此该匹配器可以被多个线程共享。
+ * </p>
+ * @see StringFormatUtils#createRegularExpressionByFormatSpec(FormatSpec)
+ */
+public final class RegexFormatMatcher implements FormatMatcher {
+
+    private final String format;
+
+    private final Pattern pattern;
+
+    RegexFormatMatcher(FormatSpec spec) {
+        this.format = spec.getFormat();
+        this.pattern = Pattern.compile(StringFormatUtils.createRegularExpressionByFormatSpec(spec));
+    }
+
+    @Override
+    public String format() {
+        return format;
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        return pattern.matcher(input).matches();
+    }
+
+    /**
+     * 创建一个复用同一个 {@link Matcher} 的匹配函数
+     * @return 匹配函数
+     */
+    @Override
+    public Predicate<CharSequence> localMatcher() {
+        Matcher matcher = pattern.matcher("");
+        return input -> matcher.reset(input).matches();
+    }
+
+    /**
+     * @return 预编译的正则表达式
+     */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String toString() {
+        return "RegexFormatMatcher[" + format + "]";
+    }
+
+}
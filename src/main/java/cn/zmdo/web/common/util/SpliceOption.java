@@ -0,0 +1,19 @@
+package cn.zmdo.web.common.util;
+
+/**
+ * 规范化拼接的选项
+ * @see UriSplicedUtils#spliceCanonicalToString(String, Object, SpliceOption...)
+ */
+public enum SpliceOption {
+
+    /**
+     * 忽略值为空字符串的参数
+     */
+    OMIT_EMPTY,
+
+    /**
+     * 忽略值为默认值的参数，即数值 {@code 0}、{@code 0.0} 及布尔值 {@code false}（包括对应的包装类）
+     */
+    OMIT_DEFAULT
+
+}
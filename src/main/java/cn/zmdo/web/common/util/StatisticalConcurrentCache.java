@@ -0,0 +1,213 @@
+package cn.zmdo.web.common.util;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 带统计信息的有界并发缓存，淘汰策略是近似的
+ * <p>
+ *     基于 {@link ConcurrentHashMap} 实现，命中时只有一次哈希查找，不加锁，也不调整元素的顺序。
+ *     未命中时先放入该键的占位 future，再在锁外调用生成函数，同时请求同一个键的线程只等待这个 future，
+ *     其他键的读取和生成都不受影响。
+ * </p>
+ * <p>
+ *     元素数量超过容量上限时，由一个线程按 CLOCK（第二次机会）的方式淘汰：
+ *     自上次扫描以来被访问过的元素保留并清除访问标记，其余元素被移除。
+ *     淘汰不是严格的 LRU，并发插入时元素数量也可能短暂超过容量上限。
+ *     需要严格 LRU 时请使用 {@link StatisticalLruCache}。
+ * </p>
+ * @param <K> 键的类型
+ * @param <V> 值的类型
+ * @see CacheStatistics
+ */
+public class StatisticalConcurrentCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> cache;
+
+    private final int sizeLimit;
+
+    private final Function<K, V> generator;
+
+    /** 正在淘汰时其他线程不再重复扫描 */
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /** 淘汰扫描的位置，跨多次淘汰保留，只在持有 {@link #evicting} 时访问 */
+    private Iterator<Entry<V>> hand;
+
+    private final LongAdder requestCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 创建一个带统计信息的缓存
+     * @param sizeLimit 缓存容量上限
+     * @param generator 未命中时用于生成值的函数，在锁外调用
+     */
+    public StatisticalConcurrentCache(int sizeLimit, Function<K, V> generator) {
+        if (sizeLimit <= 0) {
+            throw new IllegalArgumentException("Cache size limit must be positive: " + sizeLimit);
+        }
+        this.cache = new ConcurrentHashMap<>(16, 0.75f, 1);
+        this.sizeLimit = sizeLimit;
+        this.generator = generator;
+    }
+
+    /**
+     * 获取缓存值，如果缓存中不存在，则调用生成函数生成并放入缓存
+     * <p>
+     *     生成函数抛出的异常会原样抛给所有等待该键的调用者，失败的结果不会被缓存
+     * </p>
+     * @param key 键
+     * @return 缓存的值
+     */
+    public V get(K key) {
+        requestCount.increment();
+        Entry<V> entry = cache.get(key);
+        if (entry == null) {
+            Entry<V> created = new Entry<>();
+            entry = cache.putIfAbsent(key, created);
+            if (entry == null) {
+                return generate(key, created);
+            }
+        }
+        return entry.access();
+    }
+
+    private V generate(K key, Entry<V> entry) {
+        missCount.increment();
+        V value;
+        try {
+            value = generator.apply(key);
+        } catch (RuntimeException | Error e) {
+            cache.remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+        entry.future.complete(value);
+        if (cache.size() > sizeLimit) {
+            evict();
+        }
+        return value;
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // 每个元素最多被跳过一次（清除访问标记），因此最多扫描两圈
+            int remaining = 2 * cache.size();
+            while (cache.size() > sizeLimit && remaining-- > 0) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = cache.values().iterator();
+                    if (!hand.hasNext()) {
+                        break;
+                    }
+                }
+                Entry<V> entry = hand.next();
+                if (entry.accessed) {
+                    entry.accessed = false;
+                } else if (entry.future.isDone()) {
+                    hand.remove();
+                    evictionCount.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * 判断缓存中是否存在该键
+     * @param key 键
+     * @return 存在返回 {@code true}
+     */
+    public boolean contains(K key) {
+        return cache.containsKey(key);
+    }
+
+    /**
+     * 移除缓存中的键
+     * @param key 键
+     * @return 如果键存在并已被移除则返回 {@code true}
+     */
+    public boolean remove(K key) {
+        return cache.remove(key) != null;
+    }
+
+    /**
+     * 清空缓存
+     * <p>
+     *     <font style="color:red;">
+     *     <b>注意：</b> 清空缓存不会重置统计信息
+     *     </font>
+     * </p>
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return 当前缓存的元素数量
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return 缓存容量上限
+     */
+    public int sizeLimit() {
+        return sizeLimit;
+    }
+
+    /**
+     * 获取缓存的统计信息快照
+     * @return {@link CacheStatistics 缓存统计信息}
+     */
+    public CacheStatistics statistics() {
+        long misses = missCount.sum();
+        long hits = Math.max(requestCount.sum() - misses, 0L);
+        return new CacheStatistics(hits, misses, evictionCount.sum(), size(), sizeLimit());
+    }
+
+    /**
+     * 缓存的元素，值生成完成前作为占位
+     * @param <V> 值的类型
+     */
+    private static final class Entry<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        /** 自上次淘汰扫描以来是否被访问过，生成后没有再被访问的元素在扫描到时直接淘汰 */
+        private volatile boolean accessed;
+
+        V access() {
+            // 已经标记过时不再写入，避免命中时反复写同一个缓存行
+            if (!accessed) {
+                accessed = true;
+            }
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+
+    }
+
+}
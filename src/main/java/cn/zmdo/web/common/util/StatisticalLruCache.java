@@ -0,0 +1,110 @@
+package cn.zmdo.web.common.util;
+
+import org.springframework.util.ConcurrentLruCache;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 带统计信息的有界并发 LRU 缓存
+ * <p>
+ *     基于 {@link ConcurrentLruCache} 实现，缓存达到容量上限后会淘汰最久未被使用的元素，
+ *     同时记录命中、未命中以及淘汰的次数，便于观察缓存的使用效果。
+ * </p>
+ * @param <K> 键的类型
+ * @param <V> 值的类型
+ * @see CacheStatistics
+ */
+public class StatisticalLruCache<K, V> {
+
+    private final ConcurrentLruCache<K, V> cache;
+
+    private final LongAdder requestCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 创建一个带统计信息的缓存
+     * @param sizeLimit 缓存容量上限
+     * @param generator 未命中时用于生成值的函数
+     */
+    public StatisticalLruCache(int sizeLimit, Function<K, V> generator) {
+        this.cache = new ConcurrentLruCache<>(sizeLimit, key -> {
+            // 先记录未命中，生成函数抛出异常时这次请求同样不能算作命中
+            missCount.increment();
+            V value = generator.apply(key);
+            // 生成函数在写锁内调用，此时缓存已满则意味着随后会淘汰一个元素
+            if (size() >= sizeLimit()) {
+                evictionCount.increment();
+            }
+            return value;
+        });
+    }
+
+    /**
+     * 获取缓存值，如果缓存中不存在，则调用生成函数生成并放入缓存
+     * @param key 键
+     * @return 缓存的值
+     */
+    public V get(K key) {
+        requestCount.increment();
+        return cache.get(key);
+    }
+
+    /**
+     * 判断缓存中是否存在该键
+     * @param key 键
+     * @return 存在返回 {@code true}
+     */
+    public boolean contains(K key) {
+        return cache.contains(key);
+    }
+
+    /**
+     * 移除缓存中的键
+     * @param key 键
+     * @return 如果键存在并已被移除则返回 {@code true}
+     */
+    public boolean remove(K key) {
+        return cache.remove(key);
+    }
+
+    /**
+     * 清空缓存
+     * <p>
+     *     <font style="color:red;">
+     *     <b>注意：</b> 清空缓存不会重置统计信息
+     *     </font>
+     * </p>
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return 当前缓存的元素数量
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * @return 缓存容量上限
+     */
+    public int sizeLimit() {
+        return cache.sizeLimit();
+    }
+
+    /**
+     * 获取缓存的统计信息快照
+     * @return {@link CacheStatistics 缓存统计信息}
+     */
+    public CacheStatistics statistics() {
+        long misses = missCount.sum();
+        long hits = Math.max(requestCount.sum() - misses, 0L);
+        return new CacheStatistics(hits, misses, evictionCount.sum(), size(), sizeLimit());
+    }
+
+}
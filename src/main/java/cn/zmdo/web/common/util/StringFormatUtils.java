@@ -2,32 +2,312 @@ package cn.zmdo.web.common.util;
 
 import cn.zmdo.web.common.util.exception.StringFormatSignException;
 
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static cn.zmdo.web.common.util.FormatSpec.BRACKET_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.COMMA_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.DOT_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.PLUS_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.POUND_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.PREVIOUS_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.SPACE_BIT;
+import static cn.zmdo.web.common.util.FormatSpec.ZERO_BIT;
+
 public class StringFormatUtils {
 
     private static final int FLAG_BITS = 0xFF; // 标志所占的 bit 位
 
-    private static final int COMMA_BIT   = 0x01; // 逗号
-    private static final int PLUS_BIT    = 0x02; // 加号符号
-    private static final int SPACE_BIT   = 0x04; // 是否补空格
-    private static final int ZERO_BIT    = 0x08; // 是否补 0
-    private static final int DOT_BIT     = 0x10; // 小数点符号
-    private static final int POUND_BIT   = 0x20; // #号
-    private static final int BRACKET_BIT = 0x40; // 括号
+    /**
+     * 正则表达式长度上限的默认值
+     */
+    public static final int DEFAULT_MAX_EXPRESSION_LENGTH = 8192;
+
+    /**
+     * 正则表达式长度上限，超过该上限的格式字符串会被拒绝转换
+     */
+    private static volatile int maxExpressionLength = DEFAULT_MAX_EXPRESSION_LENGTH;
+
+    /**
+     * 逐行匹配文件时默认最多记录的不匹配行的偏移量个数
+     */
+    public static final int DEFAULT_MAX_FAILED_OFFSETS = 10000;
+
+    /**
+     * 格式匹配器缓存的默认容量
+     */
+    public static final int DEFAULT_MATCHER_CACHE_SIZE = 256;
+
+    /**
+     * 格式字符串解析结果缓存的默认容量
+     */
+    public static final int DEFAULT_FORMAT_SPEC_CACHE_SIZE = 1024;
+
+    /**
+     * 格式字符串解析结果缓存，键为格式字符串
+     */
+    private static final StatisticalLruCache<String, FormatSpec> FORMAT_SPEC_CACHE =
+            new StatisticalLruCache<>(DEFAULT_FORMAT_SPEC_CACHE_SIZE, StringFormatUtils::parseFormatSpec);
+
+    /**
+     * 格式匹配器缓存，每种匹配引擎一个缓存，键为格式字符串
+     */
+    private static final Map<FormatMatchEngine, StatisticalLruCache<String, FormatMatcher>> MATCHER_CACHES;
+
+    static {
+        MATCHER_CACHES = new EnumMap<>(FormatMatchEngine.class);
+        for (FormatMatchEngine engine : FormatMatchEngine.values()) {
+            MATCHER_CACHES.put(engine, new StatisticalLruCache<>(DEFAULT_MATCHER_CACHE_SIZE,
+                    format -> engine.create(analysisFormat(format))));
+        }
+    }
+
+    /**
+     * 解析格式字符串
+     * <p>
+     *     解析结果会按格式字符串缓存，正则表达式、直接匹配等都是基于同一个解析结果构建的，
+     *     同一个格式字符串只会被解析一次。
+     * </p>
+     * @param format 格式字符串，例如 {@code "%05d-%s"}
+     * @return {@link FormatSpec 不可变的解析结果}
+     * @throws StringFormatSignException 如果格式字符串无法解析，就会抛出此异常
+     */
+    public static FormatSpec analysisFormat(String format) {
+        return FORMAT_SPEC_CACHE.get(format);
+    }
+
+    /**
+     * 将格式字符串编译为匹配器，使用默认的 {@link FormatMatchEngine#REGEX 正则表达式引擎}
+     * <p>
+     *     编译结果会按格式字符串缓存，重复编译同一个格式字符串只需一次缓存查找，
+     *     不会再重新解析格式和编译正则表达式。
+     * </p>
+     * @param format 格式字符串，例如 {@code "%05d-%s"}
+     * @return {@link FormatMatcher 线程安全的格式匹配器}
+     * @throws StringFormatSignException 如果格式字符串无法解析，就会抛出此异常
+     */
+    public static FormatMatcher compile(String format) {
+        return compile(format, FormatMatchEngine.REGEX);
+    }
+
+    /**
+     * 使用指定的匹配引擎将格式字符串编译为匹配器
+     * @param format 格式字符串，例如 {@code "%05d-%s"}
+     * @param engine 匹配引擎
+     * @return {@link FormatMatcher 线程安全的格式匹配器}
+     * @throws StringFormatSignException 如果格式字符串无法解析或该引擎不支持此格式，就会抛出此异常
+     * @see FormatMatchEngine
+     */
+    public static FormatMatcher compile(String format, FormatMatchEngine engine) {
+        return MATCHER_CACHES.get(engine).get(format);
+    }
+
+    /**
+     * 编译格式化器，使用默认的 {@link Locale}
+     * @param format 格式字符串，例如 {@code "ORD-%08d"}
+     * @return {@link CompiledFormat 线程安全的格式化器}，输出与 {@link String#format(String, Object...)} 一致
+     * @throws StringFormatSignException 如果格式字符串无法解析，就会抛出此异常
+     * @see #compileFormat(String, Locale)
+     */
+    public static CompiledFormat compileFormat(String format) {
+        return compileFormat(format, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * 编译格式化器
+     * <p>
+     *     格式字符串只在编译时解析一次，适用于日志、编号等需要大量重复格式化的场景，编译结果应当保存为常量。
+     * </p>
+     * @param format 格式字符串，例如 {@code "ORD-%08d"}
+     * @param locale 格式化时使用的 {@link Locale}
+     * @return {@link CompiledFormat 线程安全的格式化器}，输出与 {@link String#format(Locale, String, Object...)} 一致
+     * @throws StringFormatSignException 如果格式字符串无法解析，就会抛出此异常
+     */
+    public static CompiledFormat compileFormat(String format, Locale locale) {
+        return new CompiledFormat(format, locale);
+    }
+
+    /**
+     * 按格式字符串解析出每个占位符对应的值
+     * <p>
+     *     使用 {@link FormatMatchEngine#DIRECT 直接匹配引擎}，匹配与取值在同一次扫描中完成，
+     *     例如使用 {@code "%05d-%s"} 解析 {@code "00042-abc"}，可以得到 {@code 42} 与 {@code "abc"}
+     * </p>
+     * @param format 格式字符串
+     * @param input 需要解析的字符串
+     * @return {@link FormatValues 解析出的值}，如果不符合格式则返回 {@code null}
+     * @throws StringFormatSignException 如果格式字符串无法解析或直接匹配引擎不支持此格式，就会抛出此异常
+     * @see DirectFormatMatcher#parse(CharSequence, FormatValues)
+     */
+    public static FormatValues parse(String format, CharSequence input) {
+        return ((DirectFormatMatcher) compile(format, FormatMatchEngine.DIRECT)).parse(input);
+    }
+
+    /**
+     * 逐行匹配文件，使用默认的 {@link FormatMatchEngine#REGEX 正则表达式引擎}，文件编码为 UTF-8
+     * @param file 文件路径
+     * @param format 格式字符串
+     * @return {@link LineMatchResult 匹配结果}，最多记录 {@link #DEFAULT_MAX_FAILED_OFFSETS} 个不匹配行的偏移量
+     * @throws IOException 读取文件失败
+     * @see #matchLines(Path, FormatMatcher, Charset, ForkJoinPool, int)
+     */
+    public static LineMatchResult matchLines(Path file, String format) throws IOException {
+        return matchLines(file, compile(format));
+    }
+
+    /**
+     * 逐行匹配文件，文件编码为 UTF-8
+     * @param file 文件路径
+     * @param matcher 格式匹配器
+     * @return {@link LineMatchResult 匹配结果}，最多记录 {@link #DEFAULT_MAX_FAILED_OFFSETS} 个不匹配行的偏移量
+     * @throws IOException 读取文件失败
+     * @see #matchLines(Path, FormatMatcher, Charset, ForkJoinPool, int)
+     */
+    public static LineMatchResult matchLines(Path file, FormatMatcher matcher) throws IOException {
+        return matchLines(file, matcher, StandardCharsets.UTF_8, ForkJoinPool.commonPool(), DEFAULT_MAX_FAILED_OFFSETS);
+    }
+
+    /**
+     * 逐行匹配文件
+     * <p>
+     *     文件在行边界处被切分为若干段并通过内存映射读取，各段在线程池中并行匹配，
+     *     适用于校验非常大的按行导出的文件。行以 {@code '\n'} 分隔，行尾的 {@code '\r'} 会被忽略。
+     * </p>
+     * <p>
+     *     <font style="color:red;">
+     *     <b>注意：</b> 文件的编码必须兼容 ASCII，例如 UTF-8、GBK，不支持 UTF-16 等编码
+     *     </font>
+     * </p>
+     * @param file 文件路径
+     * @param matcher 格式匹配器
+     * @param charset 文件编码
+     * @param pool 执行匹配的线程池
+     * @param maxFailedOffsets 最多记录的不匹配行的偏移量个数，不影响行数的统计
+     * @return {@link LineMatchResult 匹配结果}
+     * @throws IOException 读取文件失败
+     */
+    public static LineMatchResult matchLines(Path file, FormatMatcher matcher, Charset charset,
+                                             ForkJoinPool pool, int maxFailedOffsets) throws IOException {
+        return FormatFileScanner.scan(file, matcher, charset, pool, maxFailedOffsets, FormatFileScanner.DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * 获取正则表达式引擎的格式匹配器缓存的统计信息
+     * @return {@link CacheStatistics 缓存统计信息}
+     */
+    public static CacheStatistics getMatcherCacheStatistics() {
+        return getMatcherCacheStatistics(FormatMatchEngine.REGEX);
+    }
+
+    /**
+     * 获取指定匹配引擎的格式匹配器缓存的统计信息
+     * @param engine 匹配引擎
+     * @return {@link CacheStatistics 缓存统计信息}
+     */
+    public static CacheStatistics getMatcherCacheStatistics(FormatMatchEngine engine) {
+        return MATCHER_CACHES.get(engine).statistics();
+    }
+
+    /**
+     * 获取格式字符串解析结果缓存的统计信息
+     * @return {@link CacheStatistics 缓存统计信息}
+     */
+    public static CacheStatistics getFormatSpecCacheStatistics() {
+        return FORMAT_SPEC_CACHE.statistics();
+    }
+
+    /**
+     * 获取正则表达式长度的上限
+     * @return 正则表达式长度的上限
+     */
+    public static int getMaxExpressionLength() {
+        return maxExpressionLength;
+    }
 
+    /**
+     * 设置正则表达式长度的上限
+     * <p>
+     *     <font style="color:red;">
+     *     <b>注意：</b> 已经编译并缓存的匹配器不受影响
+     *     </font>
+     * </p>
+     * @param maxExpressionLength 正则表达式长度的上限
+     */
+    public static void setMaxExpressionLength(int maxExpressionLength) {
+        if (maxExpressionLength <= 0) {
+            throw new IllegalArgumentException("正则表达式长度上限必须大于 0");
+        }
+        StringFormatUtils.maxExpressionLength = maxExpressionLength;
+    }
 
+    /**
+     * 将格式字符串转换为正则表达式，正则表达式的长度不能超过 {@link #getMaxExpressionLength()}
+     * @param formatExpression 格式字符串
+     * @return 正则表达式
+     * @throws StringFormatSignException 如果格式字符串无法解析或正则表达式超过长度上限，就会抛出此异常
+     */
     public static String createRegularExpressionByFormatString(String formatExpression) {
-        StringBuilder regularExpressionBuilder = new StringBuilder("^");
-        char[] chars = formatExpression.toCharArray();
+        return createRegularExpressionByFormatString(formatExpression,maxExpressionLength);
+    }
 
-        for (int i = 0; i < chars.length ; i ++) {
-            char ch = chars[i];
-            switch (ch) {
+    /**
+     * 将格式字符串转换为正则表达式
+     * @param formatExpression 格式字符串
+     * @param maxExpressionLength 正则表达式长度的上限
+     * @return 正则表达式
+     * @throws StringFormatSignException 如果格式字符串无法解析或正则表达式超过长度上限，就会抛出此异常
+     */
+    public static String createRegularExpressionByFormatString(String formatExpression, int maxExpressionLength) {
+        return createRegularExpressionByFormatSpec(analysisFormat(formatExpression),maxExpressionLength);
+    }
 
-                // 如果碰见 % 这个是格式符号
-                case '%':
-                    i += analysisSign(chars,i + 1,regularExpressionBuilder);
-                    break;
+    /**
+     * 将解析后的格式字符串转换为正则表达式，正则表达式的长度不能超过 {@link #getMaxExpressionLength()}
+     * @param spec 解析后的格式字符串
+     * @return 正则表达式
+     * @throws StringFormatSignException 如果包含无法转换的占位符或正则表达式超过长度上限，就会抛出此异常
+     */
+    public static String createRegularExpressionByFormatSpec(FormatSpec spec) {
+        return createRegularExpressionByFormatSpec(spec,maxExpressionLength);
+    }
 
+    /**
+     * 将解析后的格式字符串转换为正则表达式
+     * @param spec 解析后的格式字符串
+     * @param maxExpressionLength 正则表达式长度的上限
+     * @return 正则表达式
+     * @throws StringFormatSignException 如果包含无法转换的占位符或正则表达式超过长度上限，就会抛出此异常
+     */
+    public static String createRegularExpressionByFormatSpec(FormatSpec spec, int maxExpressionLength) {
+        StringBuilder regularExpressionBuilder = new StringBuilder("^");
+        for (FormatSpec.Segment segment : spec.getSegments()) {
+            if (segment instanceof FormatSpec.Literal) {
+                appendLiteralExpression(regularExpressionBuilder,((FormatSpec.Literal) segment).getText());
+            } else {
+                appendExpression(regularExpressionBuilder,(FormatSpec.Specifier) segment);
+            }
+            checkExpressionLength(regularExpressionBuilder,maxExpressionLength);
+        }
+        regularExpressionBuilder.append("$");
+        checkExpressionLength(regularExpressionBuilder,maxExpressionLength);
+        return regularExpressionBuilder.toString();
+    }
+
+    /**
+     * 转义普通字符中的正则表达式特殊字符
+     */
+    private static void appendLiteralExpression(StringBuilder builder, String text) {
+        for (int i = 0; i < text.length(); i ++) {
+            char ch = text.charAt(i);
+            switch (ch) {
                 // 特殊字符串
                 case '\\':
                 case '^':
@@ -43,18 +323,111 @@ public class StringFormatUtils {
                 case ']':
                 case '(':
                 case ')':
-                    regularExpressionBuilder.append("\\").append(ch);
+                    builder.append('\\').append(ch);
                     break;
 
                 default:
-                    regularExpressionBuilder.append(ch);
+                    builder.append(ch);
             }
         }
-        regularExpressionBuilder.append("$");
-        return regularExpressionBuilder.toString();
     }
 
-    private static int analysisSign(char[] chars,int start,StringBuilder regularExpressionBuilder) {
+    /**
+     * 检查正则表达式是否超过长度上限
+     */
+    private static void checkExpressionLength(StringBuilder regularExpressionBuilder, int maxExpressionLength) {
+        if (regularExpressionBuilder.length() > maxExpressionLength) {
+            throw new StringFormatSignException(
+                    String.format("正则表达式长度超过上限 %d，请简化格式字符串或使用直接匹配引擎",maxExpressionLength));
+        }
+    }
+
+    /**
+     * 解析格式字符串，不经过缓存
+     * <p>
+     *     普通字符（包括 {@code %%} 及 {@code %n} 表示的字符）会被合并为 {@link FormatSpec.Literal}，
+     *     格式占位符解析出标志位、宽度及精度后成为 {@link FormatSpec.Specifier}，并在此时检查标志位是否冲突。
+     * </p>
+     * @param format 格式字符串
+     * @return 解析结果
+     * @throws StringFormatSignException 如果格式字符串无法解析，就会抛出此异常
+     */
+    static FormatSpec parseFormatSpec(String format) {
+        List<FormatSpec.Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int literalStart = 0; // 当前普通字符在格式字符串中的起始位置
+        char[] chars = format.toCharArray();
+        for (int i = 0; i < chars.length ; i ++) {
+            char ch = chars[i];
+            // 如果碰见 % 这个是格式符号
+            if (ch == '%') {
+                int size = segments.size();
+                i += analysisSign(format,chars,i + 1,literalStart,literal,segments);
+                if (segments.size() != size) {
+                    literalStart = i + 1;
+                }
+            } else {
+                literal.append(ch);
+            }
+        }
+        if (literal.length() > 0) {
+            segments.add(new FormatSpec.Literal(literal.toString(),format.substring(literalStart)));
+        }
+        return new FormatSpec(format,segments);
+    }
+
+    /**
+     * 根据占位符构建对应的正则表达式
+     */
+    private static void appendExpression(StringBuilder builder, FormatSpec.Specifier specifier) {
+        int flags = specifier.getFlags();
+        int number = specifier.getWidth();
+        int decimal = specifier.getPrecision();
+        boolean upper = specifier.isUpperCase();
+        switch (specifier.getConversion()) {
+            case 's':
+            case 'S':
+                // 构建字符串正则表达式
+                buildStringExpression(builder,number,decimal,upper);
+                break;
+            case 'c':
+            case 'C':
+                // 构建字符正则表达式
+                buildCharExpression(builder,number,upper);
+                break;
+            case 'b':
+            case 'B':
+                // 构建布尔值正则表达式
+                buildBooleanExpression(builder,number,decimal,upper);
+                break;
+            case 'd':
+                // 构建十进制整数正则表达式
+                buildIntegerExpression(builder,flags,number);
+                break;
+            case 'x':
+            case 'X':
+                // 构建十六进制整数正则表达式
+                buildHexIntegerExpression(builder,flags,number,upper);
+                break;
+            case 'o':
+                // 构建八进制整数正则表达式
+                buildOctIntegerExpression(builder,flags,number);
+                break;
+            case 'f':
+            case 'e':
+            case 'E':
+            case 'a':
+            case 'A':
+                // 构建小数正则表达式
+                buildFloatExpression(builder,specifier);
+                break;
+            default:
+                throw new StringFormatSignException(String.format("无效的占位符'%c'",specifier.getConversion()));
+        }
+    }
+
+    private static int analysisSign(String format,char[] chars,int start,int literalStart,
+                                    StringBuilder literal,List<FormatSpec.Segment> segments) {
         boolean first = true;  // 初始位记录
         boolean numberTyped = false;
         boolean dotFirst = false; // 小数点后必须跟数字，这个是遇到点的第一个字符的标志
@@ -68,7 +441,7 @@ public class StringFormatUtils {
 
             // 数字开头的，是保留的
             if ( '0' <= ch && ch <= '9') { // 数字
-                if ((!numberTyped) && ch =='0' && (flags & SPACE_BIT) == 0) {
+                if ((!numberTyped) && ch =='0' && (flags & DOT_BIT) == 0) {
                     flags = flags | ZERO_BIT;
                 } else {
                     int n = ch - '0';
@@ -83,12 +456,8 @@ public class StringFormatUtils {
                 numberTyped  = true;
             } else if (ch == '.') { // 小数点
                 if ((flags & DOT_BIT) == 0) { // 小数点只能出现一次
-                    if (flags == 0) { // 如果其他标志位都没有被定义
-                        flags = flags | DOT_BIT ;
-                        dotFirst = true;
-                    } else {
-                        throw new StringFormatSignException("标志位冲突");
-                    }
+                    flags = flags | DOT_BIT ;
+                    dotFirst = true;
                 } else {
                     throw new StringFormatSignException("小数点只能在'%'后出现一次");
                 }
@@ -122,8 +491,9 @@ public class StringFormatUtils {
                 } else {
                     throw new StringFormatSignException("'#'号标志只能出现在'%'后的首位");
                 }
-            } else if (ch == '<') { // 表示前一个格式符的表示 ，这里直接跳过
+            } else if (ch == '<') { // 表示使用前一个格式符的参数，匹配时没有影响
                 if (first) {
+                    flags = flags | PREVIOUS_BIT;
                     continue;
                 } else {
                     throw new StringFormatSignException("'<'号标志只能出现在'%'后的首位");
@@ -135,52 +505,33 @@ public class StringFormatUtils {
                 // 标志字符
                 switch (ch) {
                     case '%':
-                        regularExpressionBuilder.append("%");
+                        literal.append('%');
                         break loop;
                     case 'n':
-                        regularExpressionBuilder.append("\n");
+                        literal.append('\n');
                         break loop;
                     case 's':
                     case 'S':
-                        // 构建字符串正则表达式
-                        regularExpressionBuilder.append(buildStringExpression(flags,number,decimal,ch == 'S'));
-                        break loop;
                     case 'c':
                     case 'C':
-                        // 构建字符正则表达式
-                        regularExpressionBuilder.append(buildCharExpression(flags,number,decimal,ch == 'C'));
-                        break loop;
                     case 'b':
                     case 'B':
-                        // 构建布尔值正则表达式
-                        regularExpressionBuilder.append(buildBooleanExpression(flags,number,decimal,ch == 'B'));
-                        break loop;
                     case 'd':
-                        // TODO 构建十进制整数正则表达式
-                        regularExpressionBuilder.append(buildIntegerExpression(flags,number,decimal,false));
-                        break loop;
                     case 'x':
                     case 'X':
-                        // 构建十六进制整数正则表达式
-                        regularExpressionBuilder.append(buildHexIntegerExpression(flags,number,decimal,ch == 'X'));
-                        break loop;
                     case 'o':
-                        // 构建八进制整数正则表达式
-                        regularExpressionBuilder.append(buildOctIntegerExpression(flags,number,decimal,false));
-                        break loop;
                     case 'f':
-                        // TODO 构建小数正则表达式
-                        regularExpressionBuilder.append(buildFloatExpression(flags,number,decimal,false));
-                        break loop;
                     case 'e':
                     case 'E':
-                        // TODO 构建指数形式描述的数值
-                        throw new StringFormatSignException("暂不支持指数形式的正则表达式转换");
-                        // break loop;
                     case 'a':
-                        // TODO 构建十六进制小数正则表达式
-                        throw new StringFormatSignException("暂不支持十六进制小数的正则表达式转换");
-                        // break loop;
+                    case 'A':
+                        // 先将之前累积的普通字符作为一个整体
+                        if (literal.length() > 0) {
+                            segments.add(new FormatSpec.Literal(literal.toString(),format.substring(literalStart,start - 1)));
+                            literal.setLength(0);
+                        }
+                        segments.add(new FormatSpec.Specifier(format.substring(start - 1,i + 1),ch,flags,number,decimal));
+                        break loop;
                     default:
                         throw new StringFormatSignException(String.format("无效的占位符'%c'",ch));
                 }
@@ -191,98 +542,47 @@ public class StringFormatUtils {
         return i + 1 - start;
     }
 
-    private static String buildStringExpression(int flags,int number,int decimal,boolean upper) {
-
-        // 检查符号冲突组合
-        // 只允许 "." 存在
-        final int[] conflicts = new int[]{
-                COMMA_BIT,
-                PLUS_BIT,
-                SPACE_BIT,
-                ZERO_BIT,
-                POUND_BIT,
-                BRACKET_BIT,
-        };
-        checkConflict(conflicts,flags);
+    private static void buildStringExpression(StringBuilder builder,int number,int decimal,boolean upper) {
 
         // 获取字符串表达式
-        String stringExp = ".";
-        if (upper) {
-            // 如果是大写的s占位符，那么就不能存在小写字母
-            stringExp = "[^a-z]";
-        }
+        // 如果是大写的s占位符，那么就不能存在小写字母
+        String stringExp = upper ? "[^a-z]" : ".";
 
         // 如果对字符有限制
         if (decimal > 0) {
             // 如果 最大填充空格数 大于 字串最大长度
             if (number > decimal) {
-                return String.format("[ ]{%d}%s{%d}",number - decimal,stringExp,decimal);
-            } else {
+                builder.append("[ ]{").append(number - decimal).append('}')
+                        .append(stringExp).append('{').append(decimal).append('}');
+            } else if (number > 0) {
                 // 如果 填充空格数 大于 0
-                if (number > 0) {
-                    StringBuilder nd = new StringBuilder("(");
-                    // 首先匹配到所有小于等于 空格数 的情况
-                    for (int i = 1 ; i < number ; i ++) {
-                        nd.append(String.format("([ ]{%d}%s{%d})",number - i,stringExp,i));
-                        nd.append("|");
-                    }
-                    // 匹配到超过空格数的情况
-                    nd.append(String.format("(%s{%d,%d})",stringExp,number,decimal));
-                    nd.append(")");
-                    return nd.toString();
-                } else {
-                    return String.format("%s{%d}",stringExp,decimal);
-                }
+                // 不足宽度的部分会补空格，而空格本身也能被匹配，
+                // 所以只需要限制总长度在 宽度 与 字串最大长度 之间即可
+                builder.append(stringExp).append('{').append(number).append(',').append(decimal).append('}');
+            } else {
+                builder.append(stringExp).append('{').append(decimal).append('}');
             }
+            return;
         }
 
         // 下面的是没有标注字串最大长度的情况，这种情况下无法判断
         // 直接返回一个通配符
-        return stringExp + "*";
+        builder.append(stringExp).append('*');
     }
 
-    private static String buildCharExpression(int flags,int number,int decimal,boolean upper) {
-
-        // 字符输出不支持任何标点符号
-        // 检查符号冲突组合
-        final int[] conflicts = new int[]{
-                COMMA_BIT,
-                PLUS_BIT,
-                SPACE_BIT,
-                ZERO_BIT,
-                DOT_BIT,
-                POUND_BIT,
-                BRACKET_BIT,
-        };
-        checkConflict(conflicts,flags);
-
-        String charExp = ".";
-        if (upper) {
-            // 如果是大写的c占位符，那么就不能存在小写字母
-            charExp = "[^a-z]";
-        }
+    private static void buildCharExpression(StringBuilder builder,int number,boolean upper) {
 
         // 如果填充 > 1
         if (number > 1) {
-            return String.format("[ ]{%d}%s{1}",number - 1,charExp);
+            // 如果是大写的c占位符，那么就不能存在小写字母
+            builder.append("[ ]{").append(number - 1).append('}').append(upper ? "[^a-z]" : ".").append("{1}");
+            return;
         }
 
-        return ".{1}";
+        builder.append(".{1}");
     }
 
-    private static String buildBooleanExpression(int flags, int number, int decimal,boolean upper) {
-
-        // 检查符号冲突组合
-        // 只允许 "." 存在
-        final int[] conflicts = new int[]{
-                COMMA_BIT,
-                PLUS_BIT,
-                SPACE_BIT,
-                ZERO_BIT,
-                POUND_BIT,
-                BRACKET_BIT,
-        };
-        checkConflict(conflicts,flags);
+    private static void buildBooleanExpression(StringBuilder builder, int number, int decimal,boolean upper) {
 
         String trueStr = upper?"TRUE":"true";
         String falseStr = upper?"FALSE":"false";
@@ -291,32 +591,26 @@ public class StringFormatUtils {
         // 如果是 字串最大长度 > 0
         // 字串最大长度在大于等于5的情况下进行单独处理，再大就没任何意义了
         if (0 < decimal && decimal < maxLen) {
-            String subExpression = String.format("(%s|%s)",trueStr.substring(0,decimal),falseStr.substring(0,decimal));
-            if (decimal > number) {
-                return subExpression;
-            } else {
-                return String.format("[ ]{%d}%s",number - decimal,subExpression);
+            if (decimal <= number) {
+                builder.append("[ ]{").append(number - decimal).append('}');
             }
+            builder.append('(').append(trueStr, 0, decimal).append('|').append(falseStr, 0, decimal).append(')');
+            return;
         }
 
         if (number == maxLen) {
-            return String.format("([ ]%s|%s)",trueStr,falseStr);
+            builder.append("([ ]").append(trueStr).append('|').append(falseStr).append(')');
+            return;
         } else if (number > maxLen) {
-            return String.format("[ ]{%d}([ ]%s|%s)",number - maxLen,trueStr,falseStr);
+            builder.append("[ ]{").append(number - maxLen).append('}')
+                    .append("([ ]").append(trueStr).append('|').append(falseStr).append(')');
+            return;
         }
 
-        return String.format("(%s|%s)",trueStr,falseStr);
+        builder.append('(').append(trueStr).append('|').append(falseStr).append(')');
     }
 
-    private static String buildIntegerExpression(int flags, int number, int decimal, boolean upper) {
-
-        // 检查符号冲突组合
-        final int[] conflicts = new int[]{
-                DOT_BIT,
-                POUND_BIT,
-                PLUS_BIT | SPACE_BIT,
-        };
-        checkConflict(conflicts,flags);
+    private static void buildIntegerExpression(StringBuilder builder, int flags, int number) {
 
         // 匹配 0 的表达式
         String zeroNumberExp = "0";
@@ -331,8 +625,8 @@ public class StringFormatUtils {
         }
 
         if ((flags & ZERO_BIT) != 0) {
-            nonzeroNumberExp = String.format("0{0,%d}%s",number - 1,nonzeroNumberExp);
-            zeroNumberExp = String.format("0{%d}",number);
+            nonzeroNumberExp = "0{0," + (number - 1) + "}" + nonzeroNumberExp;
+            zeroNumberExp = "0{" + number + "}";
         }
 
         String spaceFillExp = "";
@@ -340,212 +634,178 @@ public class StringFormatUtils {
         // 即 整数部分大于1 且 填充位不为0 的情况下，可以认为就是需要填充空格
         // 只要满足上述条件，其实就无关是否有空格标志了
         if (number > 1 && (flags & ZERO_BIT) == 0) {
-            spaceFillExp = String.format("[ ]{0,%d}",number - 1);
-            zeroNumberExp = String.format("[ ]{%d}0",number - 1);
+            spaceFillExp = "[ ]{0," + (number - 1) + "}";
+            zeroNumberExp = "[ ]{" + (number - 1) + "}0";
         }
 
-        // 如果同时设置了加号和括号
-        String expression ;
+        builder.append("((").append(zeroNumberExp).append(')');
         if ((flags & PLUS_BIT) != 0 && (flags & BRACKET_BIT) != 0) {
+            // 如果同时设置了加号和括号
             // 这种情况下负数会用括号括住，而正数则需要用加号标识，0没有任何标识
-            expression = String.format("((%s)|(%s\\(%s\\))|(%s\\+%s))",
-                    zeroNumberExp,
-                    spaceFillExp,
-                    nonzeroNumberExp,
-                    spaceFillExp,
-                    nonzeroNumberExp);
+            builder.append("|(").append(spaceFillExp).append("\\(").append(nonzeroNumberExp).append("\\))")
+                    .append("|(").append(spaceFillExp).append("\\+").append(nonzeroNumberExp).append("))");
         } else if ((flags & PLUS_BIT) != 0) { // 如果仅设置了加号
-            expression = String.format("((%s)|(%s[\\+-]%s))",
-                    zeroNumberExp,
-                    spaceFillExp,
-                    nonzeroNumberExp);
+            builder.append("|(").append(spaceFillExp).append("[\\+-]").append(nonzeroNumberExp).append("))");
         } else if ((flags & BRACKET_BIT) != 0) { // 如果仅设置了括号
-            expression = String.format("((%s)|(%s\\(%s\\))|(%s%s))",
-                    zeroNumberExp,
-                    spaceFillExp,
-                    nonzeroNumberExp,
-                    spaceFillExp,
-                    nonzeroNumberExp);
+            builder.append("|(").append(spaceFillExp).append("\\(").append(nonzeroNumberExp).append("\\))")
+                    .append("|(").append(spaceFillExp).append(nonzeroNumberExp).append("))");
         } else {
-            expression = String.format("((%s)|%s[-]?(%s))",
-                    zeroNumberExp,
-                    spaceFillExp,
-                    nonzeroNumberExp);
+            builder.append('|').append(spaceFillExp).append("[-]?(").append(nonzeroNumberExp).append("))");
         }
-
-        return expression;
     }
 
-    private static String buildHexIntegerExpression(int flags, int number, int decimal, boolean upper) {
-        // 禁止 空格 逗号 括号 小数点 加号
-        final int[] conflicts = new int[]{
-                COMMA_BIT,
-                PLUS_BIT,
-                SPACE_BIT,
-                DOT_BIT,
-                BRACKET_BIT,
-        };
-        checkConflict(conflicts,flags);
+    private static void buildHexIntegerExpression(StringBuilder builder, int flags, int number, boolean upper) {
 
-        String nonzeroNumberSegmentExp ;
-        if (upper) {
-            nonzeroNumberSegmentExp = "[1-9A-F][0-9A-F]";
-        } else {
-            nonzeroNumberSegmentExp = "[1-9a-f][0-9a-f]";
+        // 检查 '#’ 键是否存在，存在的话需要加上 "0x" 或 "0X" 标记
+        String hexPrefix = "";
+        if ((flags & POUND_BIT) != 0) {
+            hexPrefix = upper ? "0X" : "0x";
         }
 
-        String nonzeroNumberExp = null;
-        String zeroNumberExp = "0";
-
-        String hexPrefix = "0x";
         if (upper) {
-            hexPrefix = "0X";
+            buildRadixIntegerExpression(builder,flags,number,hexPrefix,"[0-9A-F]","[1-9A-F]");
+        } else {
+            buildRadixIntegerExpression(builder,flags,number,hexPrefix,"[0-9a-f]","[1-9a-f]");
         }
+    }
 
-        // 检查 zero 标志位
-        if ((flags & ZERO_BIT) != 0) {
+    private static void buildOctIntegerExpression(StringBuilder builder, int flags, int number) {
 
-            // 检查 '#’ 键是否存在，存在的话需要加上 "0x" 或 "0X" 标记
-            StringBuilder builder = new StringBuilder("(");
-            if((flags & POUND_BIT) != 0) {
-                builder.append(hexPrefix).append("(");
-                // 这里处理的是 0标志位的个数 大于 整数总位数 的情况
-                for (int i = 0 ; i < number - 3 ; i ++) {
-                    builder.append(String.format("(0{%d}%s{%d})|",number - 3 - i,nonzeroNumberSegmentExp,i));
-                }
-                // 这里处理的是 0标志位的个数 小于 整数总位数 的情况
-                builder.append(String.format("%s{%d,}",nonzeroNumberSegmentExp,number - 3));
-                builder.append(")");
+        // 检查 '#’ 键是否存在，存在的话需要加上 "0" 标记
+        String octPrefix = (flags & POUND_BIT) != 0 ? "0" : "";
 
-                zeroNumberExp = String.format("%s0{%d}",hexPrefix,number - 2);
-            } else {
-                // 这里处理的是 0标志位的个数 大于 整数总位数 的情况
-                for (int i = 0 ; i < number - 1 ; i ++) {
-                    builder.append(String.format("(0{%d}%s{%d})|",number - 1 - i,nonzeroNumberSegmentExp,i));
-                }
-                // 这里处理的是 0标志位的个数 小于 整数总位数 的情况
-                builder.append(String.format("%s{%d,}",nonzeroNumberSegmentExp,number - 1));
+        buildRadixIntegerExpression(builder,flags,number,octPrefix,"[0-7]","[1-7]");
+    }
 
-                zeroNumberExp = String.format("0{%d}",number);
-            }
-            nonzeroNumberExp = builder.append(")").toString();
+    /**
+     * 构建十六进制及八进制整数的正则表达式
+     * <p>
+     *     生成的表达式长度与宽度无关，不会随着宽度的增加而展开
+     * </p>
+     * @param builder 正则表达式
+     * @param flags 标志位
+     * @param number 宽度
+     * @param prefix "#" 标志对应的前缀
+     * @param digitExp 数字的表达式
+     * @param nonzeroDigitExp 非零数字的表达式
+     */
+    private static void buildRadixIntegerExpression(StringBuilder builder, int flags, int number, String prefix,
+                                                    String digitExp, String nonzeroDigitExp) {
+        // 检查 zero 标志位
+        if ((flags & ZERO_BIT) != 0) {
+            // 前缀之后用 0 补满的位数
+            int digits = Math.max(number - prefix.length(), 1);
+            // 位数 不超过 补满的位数 时可以有前导 0（也包括 0 本身），超过时首位不能为 0
+            builder.append(prefix)
+                    .append("((").append(digitExp).append('{').append(digits).append("})")
+                    .append("|(").append(nonzeroDigitExp).append(digitExp).append('{').append(digits).append(",}))");
+            return;
         }
 
-        // 如果需要填充空格
-        // 即 整数部分大于1 且 填充位不为0 的情况下，可以认为就是需要填充空格
-        // 注意 ”补零“ 和 ”补空格“ 是相互排斥的，所以里面还是要判断一次 ”#“
-        if (number > 1 && (flags & ZERO_BIT) == 0) {
-
-            // 检查 '#’ 键是否存在，存在的话需要加上 "0x" 或 "0X" 标记
-            StringBuilder builder = new StringBuilder("(");
-            if((flags & POUND_BIT) != 0) {
-                // 这里处理的是 空格标志位的个数 大于 整数总位数 的情况
-                for (int i = 0 ; i < number - 3 ; i ++) {
-                    builder.append(String.format("([ ]{%d}%s%s{%d})|",number - 3 - i,hexPrefix,nonzeroNumberSegmentExp,i));
-                }
-                // 这里处理的是 空格标志位的个数 小于 整数总位数 的情况
-                builder.append(String.format("%s%s{%d,}",hexPrefix,nonzeroNumberSegmentExp,number - 3));
-
-                zeroNumberExp = String.format("[ ]{%d}%s0",number - 3,hexPrefix);
-            } else {
-                // 这里处理的是 空格标志位的个数 大于 整数总位数 的情况
-                for (int i = 0 ; i < number - 1 ; i ++) {
-                    builder.append(String.format("([ ]{%d}%s{%d})|",number - 1 - i,nonzeroNumberSegmentExp,i));
-                }
-                // 这里处理的是 空格标志位的个数 小于 整数总位数 的情况
-                builder.append(String.format("%s{%d,}",nonzeroNumberSegmentExp,number - 1));
-
-                zeroNumberExp = String.format("[ ]{%d}0",number - 1);
-            }
-            nonzeroNumberExp = builder.append(")").toString();
+        builder.append("((");
+        // 0 本身需要用空格补满宽度
+        int zeroSpaces = number - prefix.length() - 1;
+        if (zeroSpaces > 0) {
+            builder.append("[ ]{").append(zeroSpaces).append('}');
+        }
+        builder.append(prefix).append("0)|(");
+
+        // 补了空格时总长度恰好为宽度：先取宽度个字符，其中任何非空格字符之后都不能再出现空格，
+        // 再向前检查这些字符以 空格 + 前缀 + 非零数 结尾，表达式的长度与宽度无关
+        int maxDigits = number - prefix.length() - 1;
+        if (maxDigits > 0) {
+            builder.append("(?!.{0,").append(number - 2).append("}[^ ][ ]).{").append(number).append('}')
+                    .append("(?<=[ ]").append(prefix).append(nonzeroDigitExp)
+                    .append(digitExp).append("{0,").append(maxDigits - 1).append("}))|(");
+        }
+        // 没有补空格时至少为宽度
+        builder.append(prefix).append(nonzeroDigitExp).append(digitExp);
+        if (maxDigits > 0) {
+            builder.append('{').append(maxDigits).append(",}))");
+        } else {
+            builder.append("*))");
         }
-
-        return String.format("((%s)|(%s))",zeroNumberExp,nonzeroNumberExp);
     }
 
-    private static String buildOctIntegerExpression(int flags, int number, int decimal, boolean upper) {
-
-        // 禁止 空格 逗号 括号 小数点 加号
-        final int[] conflicts = new int[]{
-                COMMA_BIT,
-                PLUS_BIT,
-                SPACE_BIT,
-                DOT_BIT,
-                BRACKET_BIT,
-        };
-        checkConflict(conflicts,flags);
-
-        String nonzeroNumberExp = "[1-7][0-7]*";
-        String zeroNumberExp = "0";
+    /**
+     * 构建小数的正则表达式，包括 {@code %f}、科学计数法 {@code %e} 及十六进制小数 {@code %a}
+     * <p>
+     *     不匹配 {@code NaN} 及 {@code Infinity}
+     * </p>
+     */
+    private static void buildFloatExpression(StringBuilder builder, FormatSpec.Specifier specifier) {
+        int flags = specifier.getFlags();
+        int number = specifier.getWidth();
+
+        // 补 0 在符号之后，最多补 宽度 - 1 位
+        String zeroFillExp = "";
+        if ((flags & ZERO_BIT) != 0 && number > 1) {
+            zeroFillExp = "0{0," + (number - 1) + "}";
+        }
 
-        // 检查 zero 标志位
-        if ((flags & ZERO_BIT) != 0) {
-            // 检查 '#’ 键是否存在，存在的话需要加上 "0" 标记
-            StringBuilder builder = new StringBuilder("(");
-            if((flags & POUND_BIT) != 0) {
-                builder.append("0(");
-                // 这里处理的是 0标志位的个数 大于 整数总位数 的情况
-                for (int i = 0; i < number - 1; i ++) {
-                    builder.append(String.format("(0{%d}[1-7][0-7]{%d})|",number - 2 - i,i));
+        // 不带符号的部分
+        StringBuilder magnitude = new StringBuilder();
+        switch (specifier.getConversion()) {
+            case 'f':
+                magnitude.append(zeroFillExp);
+                if ((flags & COMMA_BIT) != 0) {
+                    magnitude.append("(0|[1-9][0-9]{0,2}(,[0-9]{3})*)");
+                } else {
+                    magnitude.append("(0|[1-9][0-9]*)");
                 }
-                // 这里处理的是 0标志位的个数 小于 整数总位数 的情况
-                builder.append(String.format("[1-7][0-7]{%d,}",number - 1));
-                builder.append(")");
-            } else {
-                // 这里处理的是 0标志位的个数 大于 整数总位数 的情况
-                for (int i = 0; i < number - 1; i ++) {
-                    builder.append(String.format("(0{%d}[1-7][0-7]{%d})|",number - 1 - i,i));
+                appendFractionExpression(magnitude,specifier);
+                break;
+            case 'e':
+            case 'E':
+                magnitude.append(zeroFillExp).append("[0-9]");
+                appendFractionExpression(magnitude,specifier);
+                magnitude.append(specifier.getConversion()).append("[\\+-][0-9]{2,}");
+                break;
+            default:
+                // 十六进制小数，精度为 0 时按 1 处理，未指定精度时位数不固定
+                boolean upper = specifier.isUpperCase();
+                magnitude.append(upper ? "0X" : "0x").append(zeroFillExp).append("[01]\\.")
+                        .append(upper ? "[0-9A-F]" : "[0-9a-f]");
+                if ((flags & DOT_BIT) != 0) {
+                    magnitude.append('{').append(Math.max(specifier.getPrecision(), 1)).append('}');
+                } else {
+                    magnitude.append('+');
                 }
-                // 这里处理的是 0标志位的个数 小于 整数总位数 的情况
-                builder.append(String.format("[1-7][0-7]{%d,}",number - 1));
-            }
-            nonzeroNumberExp = builder.append(")").toString();
-            zeroNumberExp = String.format("0{%d}",number);
+                magnitude.append(upper ? 'P' : 'p').append("-?[0-9]+");
         }
 
         // 如果需要填充空格
-        // 即 整数部分大于1 且 填充位不为0 的情况下，可以认为就是需要填充空格
-        // 注意 ”补零“ 和 ”补空格“ 是相互排斥的，所以里面还是要判断一次 ”#“
         if (number > 1 && (flags & ZERO_BIT) == 0) {
-            // 检查 '#’ 键是否存在，存在的话需要加上 "0" 标记
-            StringBuilder builder = new StringBuilder("(");
-            if((flags & POUND_BIT) != 0) {
-                // 这里处理的是 空格标志位的个数 大于 整数总位数 的情况
-                for (int i = 0; i < number - 1; i ++) {
-                    builder.append(String.format("([ ]{%d}0[1-7][0-7]{%d})|",number - 2 - i,i));
-                }
-                // 这里处理的是 空格标志位的个数 小于 整数总位数 的情况
-                builder.append(String.format("0[1-7][0-7]{%d,}",number - 1));
-
-                zeroNumberExp = String.format("[ ]{%d}00",number - 2);
-            } else {
-                // 这里处理的是 空格标志位的个数 大于 整数总位数 的情况
-                for (int i = 0; i < number - 1; i ++) {
-                    builder.append(String.format("([ ]{%d}[1-7][0-7]{%d})|",number - 1 - i,i));
-                }
-                // 这里处理的是 空格标志位的个数 小于 整数总位数 的情况
-                builder.append(String.format("[1-7][0-7]{%d,}",number - 1));
-
-                zeroNumberExp = String.format("[ ]{%d}0",number - 1);
-            }
-            nonzeroNumberExp = builder.append(")").toString();
+            builder.append("[ ]{0,").append(number - 1).append('}');
         }
 
-        return String.format("((%s)|(%s))",zeroNumberExp,nonzeroNumberExp);
+        // 负数
+        builder.append("((");
+        if ((flags & BRACKET_BIT) != 0) {
+            builder.append("\\(").append(magnitude).append("\\)");
+        } else {
+            builder.append('-').append(magnitude);
+        }
+        // 非负数，与整数不同，0 也会带上符号
+        builder.append(")|(");
+        if ((flags & PLUS_BIT) != 0) {
+            builder.append("\\+");
+        } else if ((flags & SPACE_BIT) != 0) {
+            builder.append("[ ]");
+        }
+        builder.append(magnitude).append("))");
     }
 
-    private static String buildFloatExpression(int flags, int number, int decimal, boolean upper) {
-        // 禁止 空格 和 加号 同时出现
-        final int[] conflicts = new int[]{
-                SPACE_BIT | PLUS_BIT,
-        };
-        checkConflict(conflicts,flags);
-
-        // 忽略 填充0 和 “#”
-
-
-        throw new StringFormatSignException("暂不支持小数形式的正则表达式转换");
-        // return null;
+    /**
+     * 构建小数部分的正则表达式，未指定精度时为 6 位，精度为 0 时只有设置了 "#" 才保留小数点
+     */
+    private static void appendFractionExpression(StringBuilder builder, FormatSpec.Specifier specifier) {
+        int precision = specifier.hasFlag(DOT_BIT) ? specifier.getPrecision() : 6;
+        if (precision > 0) {
+            builder.append("\\.[0-9]{").append(precision).append('}');
+        } else if (specifier.hasFlag(POUND_BIT)) {
+            builder.append("\\.");
+        }
     }
 
     /**
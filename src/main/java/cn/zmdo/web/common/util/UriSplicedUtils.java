@@ -4,18 +4,18 @@ import cn.zmdo.web.common.util.exception.QueryObjectException;
 import cn.zmdo.web.common.annotation.QueryObject;
 
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.beanutils.PropertyUtils;
-import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
-import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * URI工件通用工具包
@@ -25,6 +25,10 @@ import java.util.Map;
  *     使用拼装工具直接得到一个拼装好的 {@link URI} 对象了。
  * </p>
  * <p>
+ *     如果编译时启用了 {@link cn.zmdo.web.common.processor.QueryObjectProcessor 注解处理器}，
+ *     拼装时会直接使用为该类生成的 {@link QuerySplicer}，否则通过反射读取对象的属性。
+ * </p>
+ * <p>
  *     <font style="color:red;">
  *     <b>注意：</b> 该拼装工具仅支持拼装实体类内部的一维数组，不支持
  *     拼装二维及多维数组。
@@ -35,43 +39,46 @@ import java.util.Map;
 @Slf4j
 public class UriSplicedUtils {
 
+    /**
+     * 基础URI解析结果缓存的默认容量
+     */
+    public static final int DEFAULT_URI_CACHE_SIZE = 256;
+
+    /**
+     * 基础URI解析结果缓存，键为URI字符串
+     */
+    private static final StatisticalLruCache<String, QueryUriBase> URI_CACHE =
+            new StatisticalLruCache<>(DEFAULT_URI_CACHE_SIZE, QueryUriBase::parse);
+
+    /**
+     * 拼接结果缓存的默认容量
+     */
+    public static final int DEFAULT_SPLICE_CACHE_SIZE = 1024;
+
+    /**
+     * 拼接结果缓存，只缓存 {@link QueryObject#cacheable()} 为 {@code true} 的对象，键为URI字符串及对象的值
+     * <p>
+     *     拼接在锁外进行，命中时只有一次哈希查找；容量满时近似地淘汰最近未被访问的结果
+     * </p>
+     */
+    private static final StatisticalConcurrentCache<SpliceKey, Spliced> SPLICE_CACHE =
+            new StatisticalConcurrentCache<>(DEFAULT_SPLICE_CACHE_SIZE,
+                    key -> new Spliced(build(key.uri, key.splicer, key.obj)));
+
+    /**
+     * 批量拼接时拆分到 fork-join 线程池并行处理的对象数量阈值
+     */
+    public static final int PARALLEL_SPLICE_THRESHOLD = 8192;
+
     /**
      * 拼接URI参数
      * @param uri 需要拼接的URI字符串
      * @param obj 需要拼接的参数对象
      * @return {@link URI 拼接好的URI}
+     * @throws QueryObjectException 如果参数对象的属性无法读取，就会抛出此异常
      */
-    @SuppressWarnings("rawtypes")
     public static URI splice(@NotEmpty String uri, @NotNull Object obj) {
-        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
-        try {
-            Map<String,Object> map =  PropertyUtils.describe(obj);
-            for (String key : map.keySet()) {
-                Object value = map.get(key);
-                if (value == null) {
-                    continue;
-                }
-                // 拼接对象
-                if (value instanceof Collection) {
-                    Collection items = (Collection)value;
-                    for (Object item : items) {
-                        params.add(key,item.toString());
-                    }
-                } else if(value.getClass().isArray()) {
-                    // 对数组进行遍历
-                    int length = Array.getLength(value);
-                    for (int i = 0; i < length ; i ++) {
-                        Object item = Array.get(value,i);
-                        params.add(key,String.valueOf(item));
-                    }
-                } else {
-                    params.add(key,value.toString());
-                }
-            }
-        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            throw new QueryObjectException(e.getMessage());
-        }
-        return splice(uri,params);
+        return spliceToUri(uri,QuerySplicers.forObject(obj),obj);
     }
 
     /**
@@ -81,7 +88,67 @@ public class UriSplicedUtils {
      * @return {@link String 拼接好的URI字符串}
      */
     public static String spliceToString(@NotEmpty String uri,@NotNull Object obj) {
-        return splice(uri,obj).toString();
+        return spliceToString(uri,QuerySplicers.forObject(obj),obj);
+    }
+
+    private static String spliceToString(String uri, QuerySplicer<Object> splicer, Object obj) {
+        if (splicer.isCacheable()) {
+            return SPLICE_CACHE.get(new SpliceKey(uri, splicer, obj)).text;
+        }
+        return build(uri, splicer, obj);
+    }
+
+    private static URI spliceToUri(String uri, QuerySplicer<Object> splicer, Object obj) {
+        if (splicer.isCacheable()) {
+            return SPLICE_CACHE.get(new SpliceKey(uri, splicer, obj)).uri;
+        }
+        return URI.create(build(uri, splicer, obj));
+    }
+
+    private static String build(String uri, QuerySplicer<Object> splicer, Object obj) {
+        QueryUriBase base = URI_CACHE.get(uri);
+        return appendTo(new StringBuilder(base.estimatedLength()), base, splicer, obj).toString();
+    }
+
+    private static StringBuilder appendTo(StringBuilder builder, QueryUriBase base,
+                                          QuerySplicer<Object> splicer, Object obj) {
+        QueryStringWriter writer = base.start(builder);
+        splicer.writeTo(obj, writer);
+        return base.finish(writer);
+    }
+
+    /**
+     * 拼接URI参数并写入 {@link StringBuilder}
+     * <p>
+     *     参数直接编码写入传入的 builder，不会创建参数表、中间字符串或 {@link URI} 对象，
+     *     在循环中重复使用同一个 builder（使用前 {@code setLength(0)}）可以避免每次拼接分配缓冲区。
+     * </p>
+     * @param builder 写入的目标
+     * @param uri 需要拼接的URI字符串
+     * @param obj 需要拼接的参数对象
+     * @return 传入的 builder
+     * @throws QueryObjectException 如果参数对象的属性无法读取，就会抛出此异常
+     */
+    public static StringBuilder appendTo(@NotNull StringBuilder builder, @NotEmpty String uri, @NotNull Object obj) {
+        return appendTo(builder, URI_CACHE.get(uri), QuerySplicers.forObject(obj), obj);
+    }
+
+    /**
+     * 拼接URI参数并写入 {@link Appendable}
+     * @param appendable 写入的目标
+     * @param uri 需要拼接的URI字符串
+     * @param obj 需要拼接的参数对象
+     * @return 传入的 appendable
+     * @throws IOException 写入失败
+     * @throws QueryObjectException 如果参数对象的属性无法读取，就会抛出此异常
+     * @see #appendTo(StringBuilder, String, Object)
+     */
+    public static Appendable appendTo(@NotNull Appendable appendable, @NotEmpty String uri, @NotNull Object obj)
+            throws IOException {
+        if (appendable instanceof StringBuilder) {
+            return appendTo((StringBuilder) appendable, uri, obj);
+        }
+        return appendable.append(spliceToString(uri, obj));
     }
 
     /**
@@ -98,11 +165,7 @@ public class UriSplicedUtils {
      * @see QueryObject
      */
     public static URI checkAndSplice(@NotEmpty String uri,@NotNull Object obj) {
-        if (checkQueryUri(uri,obj.getClass())) {
-            return splice(uri,obj);
-        } else {
-            throw new QueryObjectException("不可访问");
-        }
+        return spliceToUri(uri,checkedSplicer(uri,obj),obj);
     }
 
     /**
@@ -119,7 +182,16 @@ public class UriSplicedUtils {
      * @see QueryObject
      */
     public static String checkAndSpliceToString(@NotEmpty String uri,@NotNull Object obj) {
-        return checkAndSplice(uri,obj).toString();
+        return spliceToString(uri,checkedSplicer(uri,obj),obj);
+    }
+
+    private static QuerySplicer<Object> checkedSplicer(String uri, Object obj) {
+        QuerySplicer<Object> splicer = QuerySplicers.forObject(obj);
+        if (splicer.getAllowedUris().contains(uri)) {
+            return splicer;
+        } else {
+            throw new QueryObjectException("不可访问");
+        }
     }
 
     /**
@@ -130,14 +202,7 @@ public class UriSplicedUtils {
      * @see QueryObject
      */
     public static URI splice(@NotNull Object obj) {
-        Class<?> clazz = obj.getClass();
-        if (clazz.isAnnotationPresent(QueryObject.class)) {
-            QueryObject queryObjectAnno = clazz.getAnnotation(QueryObject.class);
-            String uri = queryObjectAnno.value()[queryObjectAnno.defaultAPI()];
-            return splice(uri,obj);
-        } else {
-            throw new QueryObjectException("未标注注解");
-        }
+        return spliceToUri(defaultUri(obj),QuerySplicers.forObject(obj),obj);
     }
 
     /**
@@ -148,7 +213,152 @@ public class UriSplicedUtils {
      * @see QueryObject
      */
     public static String spliceToString(@NotNull Object obj) {
-        return UriSplicedUtils.splice(obj).toString();
+        return spliceToString(defaultUri(obj),QuerySplicers.forObject(obj),obj);
+    }
+
+    /**
+     * 批量拼接被 {@link QueryObject} 注解标注的对象，结果与逐个调用 {@link #splice(Object)} 相同
+     * <p>
+     *     相邻的同类对象复用同一个拼接器及基础URI，并重复使用同一个编码缓冲区；
+     *     对象数量达到 {@link #PARALLEL_SPLICE_THRESHOLD} 时拆分到 fork-join 线程池中并行处理。
+     * </p>
+     * @param objs 被 {@link QueryObject} 注解标注的对象
+     * @return {@link URI 拼接好的URI}列表，顺序与输入一致，不可修改
+     * @throws QueryObjectException 如果对象没有被 {@link QueryObject} 注解标注，就会抛出此异常
+     * @see QueryObject
+     */
+    public static List<URI> spliceAll(@NotNull Collection<?> objs) {
+        return QueryBatchSplicer.spliceAll(objs, PARALLEL_SPLICE_THRESHOLD,
+                () -> new QueryBatchSplicer(null, URI_CACHE::get), QueryBatchSplicer::toUri);
+    }
+
+    /**
+     * 批量拼接被 {@link QueryObject} 注解标注的对象并转换为字符串，结果与逐个调用 {@link #spliceToString(Object)} 相同
+     * @param objs 被 {@link QueryObject} 注解标注的对象
+     * @return {@link String 拼接好的URI字符串}列表，顺序与输入一致，不可修改
+     * @throws QueryObjectException 如果对象没有被 {@link QueryObject} 注解标注，就会抛出此异常
+     * @see #spliceAll(Collection)
+     */
+    public static List<String> spliceAllToString(@NotNull Collection<?> objs) {
+        return QueryBatchSplicer.spliceAll(objs, PARALLEL_SPLICE_THRESHOLD,
+                () -> new QueryBatchSplicer(null, URI_CACHE::get), QueryBatchSplicer::toString);
+    }
+
+    /**
+     * 使用同一个URI批量拼接参数对象，结果与逐个调用 {@link #splice(String, Object)} 相同
+     * @param uri 需要拼接的URI字符串
+     * @param objs 需要拼接的参数对象
+     * @return {@link URI 拼接好的URI}列表，顺序与输入一致，不可修改
+     * @throws QueryObjectException 如果参数对象的属性无法读取，就会抛出此异常
+     * @see #spliceAll(Collection)
+     */
+    public static List<URI> spliceAll(@NotEmpty String uri, @NotNull Collection<?> objs) {
+        return QueryBatchSplicer.spliceAll(objs, PARALLEL_SPLICE_THRESHOLD,
+                () -> new QueryBatchSplicer(uri, URI_CACHE::get), QueryBatchSplicer::toUri);
+    }
+
+    /**
+     * 使用同一个URI批量拼接参数对象并转换为字符串，结果与逐个调用 {@link #spliceToString(String, Object)} 相同
+     * @param uri 需要拼接的URI字符串
+     * @param objs 需要拼接的参数对象
+     * @return {@link String 拼接好的URI字符串}列表，顺序与输入一致，不可修改
+     * @throws QueryObjectException 如果参数对象的属性无法读取，就会抛出此异常
+     * @see #spliceAll(Collection)
+     */
+    public static List<String> spliceAllToString(@NotEmpty String uri, @NotNull Collection<?> objs) {
+        return QueryBatchSplicer.spliceAll(objs, PARALLEL_SPLICE_THRESHOLD,
+                () -> new QueryBatchSplicer(uri, URI_CACHE::get), QueryBatchSplicer::toString);
+    }
+
+    /**
+     * 以流的方式拼接被 {@link QueryObject} 注解标注的对象，适用于无法一次性放入内存的大量对象
+     * <p>
+     *     顺序流复用同一个拼接器及编码缓冲区；并行流中每个对象单独拼接，顺序仍由流本身保证。
+     *     流是惰性的，拼接在终结操作时才会进行。
+     * </p>
+     * @param objs 被 {@link QueryObject} 注解标注的对象流
+     * @return {@link URI 拼接好的URI}流
+     * @throws QueryObjectException 如果对象没有被 {@link QueryObject} 注解标注，就会在终结操作时抛出此异常
+     * @see #spliceAll(Collection)
+     */
+    public static Stream<URI> spliceAll(@NotNull Stream<?> objs) {
+        if (objs.isParallel()) {
+            return objs.map(UriSplicedUtils::splice);
+        }
+        QueryBatchSplicer splicer = new QueryBatchSplicer(null, URI_CACHE::get);
+        return objs.map(splicer::toUri);
+    }
+
+    /**
+     * 以流的方式拼接被 {@link QueryObject} 注解标注的对象并转换为字符串
+     * @param objs 被 {@link QueryObject} 注解标注的对象流
+     * @return {@link String 拼接好的URI字符串}流
+     * @throws QueryObjectException 如果对象没有被 {@link QueryObject} 注解标注，就会在终结操作时抛出此异常
+     * @see #spliceAll(Stream)
+     */
+    public static Stream<String> spliceAllToString(@NotNull Stream<?> objs) {
+        if (objs.isParallel()) {
+            return objs.map(UriSplicedUtils::spliceToString);
+        }
+        QueryBatchSplicer splicer = new QueryBatchSplicer(null, URI_CACHE::get);
+        return objs.map(splicer::toString);
+    }
+
+    /**
+     * 将被 {@link QueryObject} 注解标注的对象的请求目标以 US-ASCII 字节写入 {@link ByteBuffer}
+     * <p>
+     *     请求目标即 HTTP 请求行中的路径及查询参数（例如 {@code /api/users?id=1}），不包括协议、主机及片段，
+     *     适用于直接写出请求行的 NIO 客户端。写入过程中不会创建 {@link URI} 对象或中间字符串。
+     * </p>
+     * @param buffer 写入的目标，从当前位置开始写入
+     * @param obj 被 {@link QueryObject} 注解标注的对象
+     * @return 传入的 buffer，位置移动到写入内容之后
+     * @throws QueryObjectException 如果对象没有被 {@link QueryObject} 注解标注，就会抛出此异常
+     * @throws BufferOverflowException 如果缓冲区剩余空间不足，就会抛出此异常，此时缓冲区的位置不变
+     */
+    public static ByteBuffer appendRequestTarget(@NotNull ByteBuffer buffer, @NotNull Object obj) {
+        return appendRequestTarget(buffer, URI_CACHE.get(defaultUri(obj)), QuerySplicers.forObject(obj), obj);
+    }
+
+    /**
+     * 拼接URI参数，将请求目标以 US-ASCII 字节写入 {@link ByteBuffer}
+     * @param buffer 写入的目标，从当前位置开始写入
+     * @param uri 需要拼接的URI字符串
+     * @param obj 需要拼接的参数对象
+     * @return 传入的 buffer，位置移动到写入内容之后
+     * @throws QueryObjectException 如果参数对象的属性无法读取或URI是不透明的（例如 {@code mailto:}），就会抛出此异常
+     * @throws BufferOverflowException 如果缓冲区剩余空间不足，就会抛出此异常，此时缓冲区的位置不变
+     * @see #appendRequestTarget(ByteBuffer, Object)
+     */
+    public static ByteBuffer appendRequestTarget(@NotNull ByteBuffer buffer, @NotEmpty String uri, @NotNull Object obj) {
+        return appendRequestTarget(buffer, URI_CACHE.get(uri), QuerySplicers.forObject(obj), obj);
+    }
+
+    /**
+     * 将被 {@link QueryObject} 注解标注的对象的请求目标以 US-ASCII 字节写入字节数组
+     * @param bytes 写入的目标
+     * @param offset 开始写入的位置
+     * @param obj 被 {@link QueryObject} 注解标注的对象
+     * @return 写入的字节数
+     * @throws QueryObjectException 如果对象没有被 {@link QueryObject} 注解标注，就会抛出此异常
+     * @throws BufferOverflowException 如果字节数组剩余空间不足，就会抛出此异常
+     * @see #appendRequestTarget(ByteBuffer, Object)
+     */
+    public static int appendRequestTarget(@NotNull byte[] bytes, int offset, @NotNull Object obj) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, bytes.length - offset);
+        return appendRequestTarget(buffer, obj).position() - offset;
+    }
+
+    private static ByteBuffer appendRequestTarget(ByteBuffer buffer, QueryUriBase base,
+                                                  QuerySplicer<Object> splicer, Object obj) {
+        int position = buffer.position();
+        try {
+            splicer.writeTo(obj, base.startTarget(buffer));
+        } catch (BufferOverflowException e) {
+            buffer.position(position);
+            throw e;
+        }
+        return buffer;
     }
 
     /**
@@ -158,9 +368,7 @@ public class UriSplicedUtils {
      * @return {@link URI 拼接好的URI}
      */
     public static URI splice(@NotEmpty String uri,@NotNull MultiValueMap<String, String> params) {
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(uri)
-                .queryParams(params);
-        return builder.build().toUri();
+        return URI.create(spliceToString(uri,params));
     }
 
     /**
@@ -170,32 +378,206 @@ public class UriSplicedUtils {
      * @return {@link String 拼接好的URI字符串}
      */
     public static String spliceToString(@NotNull String uri,@NotNull MultiValueMap<String, String> params) {
-        return splice(uri,params).toString();
+        QueryUriBase base = URI_CACHE.get(uri);
+        QueryStringWriter writer = base.start(new StringBuilder(base.estimatedLength()));
+        for (Map.Entry<String, List<String>> entry : params.entrySet()) {
+            for (String value : entry.getValue()) {
+                writer.add(entry.getKey(), value);
+            }
+        }
+        return base.finish(writer).toString();
     }
 
     /**
-     * 检查对象类型是否能够进行请求
-     * @param uri 需要拼接的uri字符串
-     * @param clazz 需要检查的类型
-     * @return 返回的类型为 {@link Boolean}
+     * 规范化拼接URI参数
+     * <p>
+     *     同样的参数对象总是得到同样的URI字符串，适合作为 HTTP 缓存或 CDN 的键：
+     * </p>
+     * <ul>
+     *     <li>参数按参数名排序，与属性的读取顺序无关</li>
+     *     <li>同名参数保持数组、{@link java.util.List} 及有序集合中的顺序，无序的 {@link java.util.Set} 按字符串排序</li>
+     *     <li>编码方式与其他拼接方法完全一致</li>
+     *     <li>可以通过 {@link SpliceOption} 忽略空字符串或默认值</li>
+     * </ul>
+     * @param uri 需要拼接的URI字符串
+     * @param obj 需要拼接的参数对象
+     * @param options 规范化拼接的选项
+     * @return {@link URI 拼接好的URI}
+     * @throws QueryObjectException 如果参数对象的属性无法读取，就会抛出此异常
+     * @see #canonicalHash(String, Object, SpliceOption...)
+     */
+    public static URI spliceCanonical(@NotEmpty String uri, @NotNull Object obj, SpliceOption... options) {
+        return URI.create(spliceCanonicalToString(uri,obj,options));
+    }
+
+    /**
+     * 规范化拼接URI参数并转换为字符串
+     * @param uri 需要拼接的URI字符串
+     * @param obj 需要拼接的参数对象
+     * @param options 规范化拼接的选项
+     * @return {@link String 拼接好的URI字符串}
+     * @throws QueryObjectException 如果参数对象的属性无法读取，就会抛出此异常
+     * @see #spliceCanonical(String, Object, SpliceOption...)
+     */
+    public static String spliceCanonicalToString(@NotEmpty String uri, @NotNull Object obj, SpliceOption... options) {
+        QueryUriBase base = URI_CACHE.get(uri);
+        QueryStringWriter writer = base.start(new StringBuilder(base.estimatedLength()));
+        canonicalize(obj, options).writeTo(writer);
+        return base.finish(writer).toString();
+    }
+
+    /**
+     * 对被 {@link QueryObject} 注解标注的对象进行规范化拼接，将拼接结果转换为字符串
+     * @param obj 被 {@link QueryObject} 注解标注的对象
+     * @param options 规范化拼接的选项
+     * @return {@link String 拼接好的URI字符串}
+     * @throws QueryObjectException 如果对象没有被 {@link QueryObject} 注解标注，就会抛出此异常
+     * @see #spliceCanonical(String, Object, SpliceOption...)
+     */
+    public static String spliceCanonicalToString(@NotNull Object obj, SpliceOption... options) {
+        return spliceCanonicalToString(defaultUri(obj),obj,options);
+    }
+
+    /**
+     * 计算规范化拼接结果的 64 位哈希值
      * <p>
-     *     <ul>
-     *         <li><b>可以查询</b> - {@code true} </li>
-     *         <li><b>不可以查询</b> -  {@code false} </li>
-     *     </ul>
+     *     结果等于对 {@link #spliceCanonicalToString(String, Object, SpliceOption...)} 返回的字符串的
+     *     UTF-8 字节计算的 FNV-1a 哈希值，但是不会构建该字符串，可以直接作为缓存的键。
+     *     <font style="color:red;">
+     *     <b>注意：</b> 哈希值可能冲突，如果需要严格区分请同时比较拼接结果
+     *     </font>
      * </p>
-     * @param <T> 检查类的泛型
-     */
-    private static <T> boolean checkQueryUri(@NotEmpty String uri,@NotNull Class<T> clazz) {
-        if (clazz.isAnnotationPresent(QueryObject.class)) {
-            QueryObject queryObjectAnno = clazz.getAnnotation(QueryObject.class);
-            for (String enabledUri : queryObjectAnno.value()) {
-                if (uri.equals(enabledUri)) {
-                    return true;
-                }
+     * @param uri 需要拼接的URI字符串
+     * @param obj 需要拼接的参数对象
+     * @param options 规范化拼接的选项
+     * @return 64 位的 FNV-1a 哈希值
+     * @throws QueryObjectException 如果参数对象的属性无法读取，就会抛出此异常
+     */
+    public static long canonicalHash(@NotEmpty String uri, @NotNull Object obj, SpliceOption... options) {
+        QueryUriBase base = URI_CACHE.get(uri);
+        QueryHashWriter writer = base.startHash();
+        canonicalize(obj, options).writeTo(writer);
+        return base.finish(writer);
+    }
+
+    /**
+     * 计算被 {@link QueryObject} 注解标注的对象的规范化拼接结果的 64 位哈希值
+     * @param obj 被 {@link QueryObject} 注解标注的对象
+     * @param options 规范化拼接的选项
+     * @return 64 位的 FNV-1a 哈希值
+     * @throws QueryObjectException 如果对象没有被 {@link QueryObject} 注解标注，就会抛出此异常
+     * @see #canonicalHash(String, Object, SpliceOption...)
+     */
+    public static long canonicalHash(@NotNull Object obj, SpliceOption... options) {
+        return canonicalHash(defaultUri(obj),obj,options);
+    }
+
+    private static CanonicalQuerySink canonicalize(Object obj, SpliceOption... options) {
+        CanonicalQuerySink sink = new CanonicalQuerySink(options);
+        QuerySplicers.forObject(obj).writeTo(obj, sink);
+        return sink;
+    }
+
+    private static String defaultUri(Object obj) {
+        String uri = QuerySplicers.forObject(obj).getDefaultUri();
+        if (uri == null) {
+            throw new QueryObjectException("未标注注解");
+        }
+        return uri;
+    }
+
+    /**
+     * 将查询字符串绑定到一个新创建的查询对象，是 {@link #splice(String, Object)} 的逆操作
+     * <p>
+     *     查询字符串只会被扫描一次，参数名及参数值按 UTF-8 进行百分号解码（{@code '+'} 解码为空格），
+     *     通过预先缓存的 setter 及类型转换函数写入对象；同名的参数会依次填充数组及 {@link java.util.Collection}
+     *     类型的属性，其他类型的属性使用最后一次出现的值，未知的参数会被忽略。
+     * </p>
+     * <pre>{@code
+     * UserQuery query = UriSplicedUtils.bind(UserQuery.class, "name=Tom&tag=a&tag=b");
+     * }</pre>
+     * @param type 查询对象的类型，需要有无参构造方法
+     * @param query 查询字符串，可以以 {@code '?'} 开头
+     * @param <T> 查询对象的类型
+     * @return 绑定后的查询对象
+     * @throws QueryObjectException 如果对象无法创建或参数无法转换为属性的类型，就会抛出此异常
+     */
+    public static <T> T bind(@NotNull Class<T> type, @NotNull CharSequence query) {
+        return type.cast(QueryObjectBinder.of(type).bind(query));
+    }
+
+    /**
+     * 获取基础URI解析结果缓存的统计信息
+     * @return {@link CacheStatistics 缓存统计信息}
+     */
+    public static CacheStatistics getUriCacheStatistics() {
+        return URI_CACHE.statistics();
+    }
+
+    /**
+     * 获取拼接结果缓存的统计信息
+     * @return {@link CacheStatistics 缓存统计信息}
+     * @see QueryObject#cacheable()
+     */
+    public static CacheStatistics getSpliceCacheStatistics() {
+        return SPLICE_CACHE.statistics();
+    }
+
+    /**
+     * 拼接结果缓存的键，按URI字符串及对象的值比较
+     */
+    private static final class SpliceKey {
+
+        private final String uri;
+
+        /** 对象的拼接器，只用于生成拼接结果，不参与比较 */
+        private final QuerySplicer<Object> splicer;
+
+        private final Object obj;
+
+        private final int hash;
+
+        SpliceKey(String uri, QuerySplicer<Object> splicer, Object obj) {
+            this.uri = uri;
+            this.splicer = splicer;
+            this.obj = obj;
+            this.hash = 31 * uri.hashCode() + obj.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SpliceKey)) {
+                return false;
             }
+            SpliceKey other = (SpliceKey) o;
+            return hash == other.hash && uri.equals(other.uri)
+                    && obj.getClass() == other.obj.getClass() && obj.equals(other.obj);
         }
-        return false;
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * 缓存的拼接结果
+     */
+    private static final class Spliced {
+
+        private final String text;
+
+        private final URI uri;
+
+        Spliced(String text) {
+            this.text = text;
+            this.uri = URI.create(text);
+        }
+
     }
 
 }
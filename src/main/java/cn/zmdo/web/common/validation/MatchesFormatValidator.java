@@ -0,0 +1,31 @@
+package cn.zmdo.web.common.validation;
+
+import cn.zmdo.web.common.annotation.MatchesFormat;
+import cn.zmdo.web.common.util.FormatMatcher;
+import cn.zmdo.web.common.util.StringFormatUtils;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * {@link MatchesFormat} 的校验器
+ * <p>
+ *     匹配器在 {@link #initialize(MatchesFormat)} 中编译，校验时不会再解析格式字符串或生成正则表达式，
+ *     由于匹配器是线程安全的，同一个校验器实例可以被多个线程同时使用。
+ * </p>
+ */
+public class MatchesFormatValidator implements ConstraintValidator<MatchesFormat, CharSequence> {
+
+    private FormatMatcher matcher;
+
+    @Override
+    public void initialize(MatchesFormat constraintAnnotation) {
+        matcher = StringFormatUtils.compile(constraintAnnotation.value(), constraintAnnotation.engine());
+    }
+
+    @Override
+    public boolean isValid(CharSequence value, ConstraintValidatorContext context) {
+        return value == null || matcher.matches(value);
+    }
+
+}